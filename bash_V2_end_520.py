@@ -1,6 +1,9 @@
+import time
+SCRIPT_START_TIME = time.time()  # 脚本开始时间，Java端据此计算Blender进程启动耗时
 import bpy
 import os
 import sys
+import json
 import math
 import bmesh
 from mathutils import Vector, Matrix
@@ -16,9 +19,23 @@ from urllib.parse import urlparse
 基于UI_V2-4.28_end版本开发的无界面版本
 '''
 
+# 任务关联ID，由Java端以 --job-id=<ID> 追加在参数末尾
+JOB_ID = next((arg.split("=", 1)[1] for arg in sys.argv if arg.startswith("--job-id=")), "-")
+
 # 设置日志记录
-logging.basicConfig(level=logging.INFO, format='[执行日志] %(message)s')
+logging.basicConfig(level=logging.INFO, format=f'[执行日志] [{JOB_ID}] %(message)s')
 logger = logging.getLogger(__name__)
+
+def emit_trace_span(name, start_time, detail=None):
+    """上报阶段耗时，Java端解析 TRACE_SPAN 行记录到任务时间线"""
+    span = {
+        "job_id": JOB_ID,
+        "name": name,
+        "start_ms": int(start_time * 1000),
+        "end_ms": int(time.time() * 1000),
+        "detail": detail
+    }
+    print("TRACE_SPAN " + json.dumps(span, ensure_ascii=False), flush=True)
 # === SFTP配置 ===
 # === SFTP配置 ===
 SFTP_HOST = "10.199.194.144"  # 修改为新服务器
@@ -73,7 +90,9 @@ def download_if_url(file_path):
             local_path = os.path.join(temp_dir, file_name)
             
             logger.info(f"从URL下载文件: {file_path} 到 {local_path}")
+            fetch_start = time.time()
             urllib.request.urlretrieve(file_path, local_path)
+            emit_trace_span("input_fetch", fetch_start, file_path)
             
             logger.info(f"文件下载成功: {local_path}")
             return local_path
@@ -87,14 +106,17 @@ def download_if_url(file_path):
         temp_dir = tempfile.gettempdir()
         local_path = os.path.join(temp_dir, file_name)
         
-        return download_from_sftp(file_path, local_path)
+        fetch_start = time.time()
+        local_path = download_from_sftp(file_path, local_path)
+        emit_trace_span("input_fetch", fetch_start, file_path)
+        return local_path
     
     else:
         # 本地路径
         return file_path
     
-def project_from_view_manual(obj, camera):
-    """基于透视相机进行精确UV投影"""
+def project_from_view_manual(obj, camera, uv_crop=(0.0, 0.0, 1.0, 1.0)):
+    """基于透视相机进行精确UV投影，uv_crop为纹理裁剪后对应原图的UV范围(u0, v0, u1, v1)"""
     logger.info(f"基于透视相机 {camera.name} 参数计算UV投影")
 
     # 确保在编辑模式
@@ -167,6 +189,10 @@ def project_from_view_manual(obj, camera):
                 u = 0.5 + vert_view.x / 10.0
                 v = 0.5 + vert_view.y / 10.0
 
+            # 纹理被裁剪时，将原图UV映射到裁剪后的图片
+            u = (u - uv_crop[0]) / (uv_crop[2] - uv_crop[0])
+            v = (v - uv_crop[1]) / (uv_crop[3] - uv_crop[1])
+
             # 设置UV坐标
             loop[uv_layer].uv = (u, v)
 
@@ -212,6 +238,17 @@ def setup_material_with_texture(obj, material_index, texture_path):
 # === 主脚本开始 ===
 logger.info("开始执行无界面Blender脚本...")
 
+def parse_uv_crop(value):
+    """解析UV裁剪参数 "u0,v0,u1,v1"（由Java端纹理预处理传入）"""
+    try:
+        u0, v0, u1, v1 = (float(x) for x in value.split(","))
+        if u1 > u0 and v1 > v0:
+            return (u0, v0, u1, v1)
+    except ValueError:
+        pass
+    logger.warning(f"无效的UV裁剪参数: {value}，使用整幅纹理")
+    return (0.0, 0.0, 1.0, 1.0)
+
 # 在脚本开头添加命令行参数处理
 def parse_command_line_args():
     """处理命令行参数"""
@@ -220,13 +257,15 @@ def parse_command_line_args():
     top_texture_path = "/Users/ajax/Desktop/YJS/5_22_test_blender2.1/data/texture/20250522/top.jpg"
     side_texture_path = "/Users/ajax/Desktop/YJS/5_22_test_blender2.1/data/texture/20250522/side.jpg"
     output_path = "/Users/ajax/Desktop/YJS/5_22_test_blender2.1/data/output/02_chuizhi_20250522.glb"
+    top_uv_crop = (0.0, 0.0, 1.0, 1.0)
+    side_uv_crop = (0.0, 0.0, 1.0, 1.0)
     
     # 检查是否有命令行参数
     argv = sys.argv
     
-    # 在Blender中，Python参数位于"--"之后
+    # 在Blender中，Python参数位于"--"之后（--job-id为可选参数，不参与位置参数解析）
     if "--" in argv:
-        argv = argv[argv.index("--") + 1:]
+        argv = [arg for arg in argv[argv.index("--") + 1:] if not arg.startswith("--job-id=")]
         
         # 检查参数数量
         if len(argv) >= 1:
@@ -237,16 +276,22 @@ def parse_command_line_args():
             side_texture_path = argv[2]
         if len(argv) >= 4:
             output_path = argv[3]
+        # 可选参数：纹理预处理后顶视图、侧视图对应原图的UV范围
+        if len(argv) >= 6:
+            top_uv_crop = parse_uv_crop(argv[4])
+            side_uv_crop = parse_uv_crop(argv[5])
     
     logger.info(f"使用模型路径: {model_path}")
     logger.info(f"使用顶视图纹理: {top_texture_path}")
     logger.info(f"使用侧视图纹理: {side_texture_path}")
     logger.info(f"输出路径: {output_path}")
+    logger.info(f"UV裁剪范围: 顶视图={top_uv_crop}, 侧视图={side_uv_crop}")
     
-    return model_path, top_texture_path, side_texture_path, output_path
+    return model_path, top_texture_path, side_texture_path, output_path, top_uv_crop, side_uv_crop
 
 # 获取命令行参数
-model_path, top_texture_path, side_texture_path, output_path = parse_command_line_args()
+model_path, top_texture_path, side_texture_path, output_path, top_uv_crop, side_uv_crop = parse_command_line_args()
+emit_trace_span("script_setup", SCRIPT_START_TIME)
 
 # 如果参数是URL，下载到临时目录
 local_model_path = download_if_url(model_path)
@@ -258,9 +303,12 @@ bpy.ops.object.delete()
 
 # 导入PLY文件
 logger.info(f"正在导入PLY文件: {local_model_path}")
+import_start = time.time()
 bpy.ops.wm.ply_import(filepath=local_model_path, files=[{"name": os.path.basename(local_model_path)}])
+emit_trace_span("import", import_start, os.path.basename(local_model_path))
 
 # 定义相机配置列表（包含模型旋转参数）
+# 修改相机位姿时需同步修改Java端的ScriptCamera（预览图渲染和纹理预处理使用）
 camera_configs = [
     {
         "name": "Camera_Top",
@@ -268,6 +316,7 @@ camera_configs = [
         "rotation": (0, 0, math.pi / 2),
         "material_name": "Material_Top",
         "texture_path": top_texture_path,
+        "uv_crop": top_uv_crop,
         "model_rotation": (0, 0, 0),  # 模型处理时的旋转角度
         "selection_params": {
             "axis": 2,  # Z轴
@@ -282,6 +331,7 @@ camera_configs = [
         "rotation": (math.pi / 2, 0, math.pi / 2),
         "material_name": "Material_Side",
         "texture_path": side_texture_path,
+        "uv_crop": side_uv_crop,
         "model_rotation": (0, math.pi / 2, 0),  # 示例：绕Y轴旋转90度
         "selection_params": {
             "axis": 0,  # X轴
@@ -356,6 +406,7 @@ for i, config in enumerate(camera_configs):
 for i, config in enumerate(camera_configs):
     camera = cameras[i]
     logger.info(f"开始处理相机配置 {i + 1}/{len(camera_configs)}: {config['name']}")
+    projection_start = time.time()
 
     # 设置活动相机
     bpy.context.scene.camera = camera
@@ -422,11 +473,13 @@ for i, config in enumerate(camera_configs):
     bpy.ops.object.material_slot_assign()
 
     # 执行基于相机的UV投影
-    project_from_view_manual(mesh_obj, camera)
+    project_from_view_manual(mesh_obj, camera, config["uv_crop"])
 
     # 设置材质和纹理
     setup_material_with_texture(mesh_obj, i, config["texture_path"])
 
+    emit_trace_span(f"projection:{config['name']}", projection_start, f"{selected_faces_count} faces")
+
     # 如果不是最后一个相机，恢复模型原始旋转角度以处理下一个视角
     if i < len(camera_configs) - 1:
         bpy.ops.object.mode_set(mode='OBJECT')
@@ -491,6 +544,8 @@ def save_model_to_glb(output_path):
 
 # 在主要处理完成后调用保存函数
 # 保存处理后的模型
+export_start = time.time()
 save_model_to_glb(output_path)
+emit_trace_span("export", export_start, output_path)
 
 logger.info("脚本执行完成!")
\ No newline at end of file
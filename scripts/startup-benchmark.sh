@@ -0,0 +1,87 @@
+#!/usr/bin/env bash
+# 启动耗时对比脚本：分别以普通fat jar和fast-start方式（AppCDS + 延迟初始化 + 组件索引）启动应用，
+# 测量从进程启动到首个请求成功（/api/ship/health返回200）的耗时，以及此时进程的常驻内存（RSS）。
+#
+# 先构建：mvn -P fast-start package
+# 用法：scripts/startup-benchmark.sh [运行次数，默认5] [端口，默认18080]
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${2:-18080}"
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+TARGET_DIR="$PROJECT_DIR/target"
+JAR_NAME="texture-mapping-0.0.1-SNAPSHOT"
+HEALTH_URL="http://127.0.0.1:$PORT/api/ship/health"
+
+if [[ ! -f "$TARGET_DIR/$JAR_NAME-exec.jar" || ! -f "$TARGET_DIR/app-cds.jsa" ]]; then
+    echo "未找到构建产物，请先执行: mvn -P fast-start package" >&2
+    exit 1
+fi
+
+now_ms() {
+    # macOS的date不支持%N，回退到python
+    if date +%s%N | grep -q N; then
+        python3 -c 'import time; print(int(time.time() * 1000))'
+    else
+        echo $(($(date +%s%N) / 1000000))
+    fi
+}
+
+rss_kb() {
+    if [[ -r "/proc/$1/status" ]]; then
+        awk '/VmRSS/ {print $2}' "/proc/$1/status"
+    else
+        ps -o rss= -p "$1" | tr -d ' '
+    fi
+}
+
+median() {
+    sort -n | awk '{a[NR] = $1} END {print (NR % 2) ? a[(NR + 1) / 2] : int((a[NR / 2] + a[NR / 2 + 1]) / 2)}'
+}
+
+# 启动一次并输出 "耗时ms RSS_KB"
+measure_once() {
+    local start pid elapsed rss
+    start=$(now_ms)
+    (cd "$TARGET_DIR" && exec "$@" --server.port="$PORT" > /dev/null 2>&1) &
+    pid=$!
+    until curl -sf -o /dev/null "$HEALTH_URL"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "应用启动失败: $*" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    elapsed=$(($(now_ms) - start))
+    rss=$(rss_kb "$pid")
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "$elapsed $rss"
+}
+
+benchmark() {
+    local name="$1"
+    shift
+    local times=() rsses=() result
+    for ((i = 1; i <= RUNS; i++)); do
+        result=$(measure_once "$@")
+        times+=("${result% *}")
+        rsses+=("${result#* }")
+        echo "  [$name] 第${i}次: 首个请求 ${result% *} ms, RSS $((${result#* } / 1024)) MB"
+    done
+    local time_median rss_median
+    time_median=$(printf '%s\n' "${times[@]}" | median)
+    rss_median=$(printf '%s\n' "${rsses[@]}" | median)
+    printf '%-12s 首个请求中位数 %6d ms    RSS中位数 %5d MB\n' "$name" "$time_median" $((rss_median / 1024)) >> "$SUMMARY"
+}
+
+SUMMARY=$(mktemp)
+trap 'rm -f "$SUMMARY"' EXIT
+
+echo "Java版本: $(java -version 2>&1 | head -n 1)，每种方式运行 $RUNS 次"
+benchmark "baseline" java -jar "$JAR_NAME-exec.jar"
+benchmark "fast-start" java -XX:SharedArchiveFile=app-cds.jsa -Dspring.profiles.active=fast-start -jar "$JAR_NAME.jar"
+
+echo
+cat "$SUMMARY"
@@ -0,0 +1,26 @@
+package com.shipmodel.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 启动训练运行配置：应用启动完成后立即退出，
+ * 供fast-start构建生成AppCDS类数据归档（-XX:ArchiveClassesAtExit）时使用
+ */
+@Configuration
+@ConditionalOnProperty(name = "startup.training-run", havingValue = "true")
+public class StartupTrainingConfig implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTrainingConfig.class);
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("训练运行启动完成，退出以生成类数据归档");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
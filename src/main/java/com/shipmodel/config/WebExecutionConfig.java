@@ -0,0 +1,118 @@
+package com.shipmodel.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Web层执行模式配置（web.execution.mode）：
+ * sync：接口在Tomcat工作线程上同步执行（默认）；
+ * async：接口返回CompletableFuture，阻塞I/O在独立的I/O线程池上执行，Tomcat线程立即释放；
+ * virtual：JDK 21+下Tomcat每个请求使用一个虚拟线程，阻塞I/O不再占用平台线程，低版本JDK回退为async。
+ */
+@Configuration
+public class WebExecutionConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(WebExecutionConfig.class);
+
+    @Value("${web.execution.mode:sync}")
+    private String executionMode;
+
+    @Value("${web.execution.io-threads:64}")
+    private int ioThreads; // async模式下I/O线程池大小
+
+    @Value("${web.execution.io-queue-capacity:1000}")
+    private int ioQueueCapacity; // async模式下I/O任务队列容量，队列满时由调用线程执行
+
+    private ExecutorService virtualThreadExecutor;
+    private ExecutorService ioThreadPool;
+
+    /**
+     * 接口中阻塞I/O（Blender进程、SFTP传输、文件读取）使用的执行器。
+     * 以WebIoExecutor而不是Executor类型注册，保留Spring Boot默认的applicationTaskExecutor
+     */
+    @Bean(name = "webIoExecutor")
+    public WebIoExecutor webIoExecutor() {
+        return new WebIoExecutor(createIoExecutor());
+    }
+
+    private Executor createIoExecutor() {
+        if ("virtual".equalsIgnoreCase(executionMode) && getVirtualThreadExecutor() != null) {
+            // 请求本身已运行在虚拟线程上，直接在当前线程执行即可
+            log.info("Web执行模式: virtual（每个请求一个虚拟线程）");
+            return Runnable::run;
+        }
+        if ("async".equalsIgnoreCase(executionMode) || "virtual".equalsIgnoreCase(executionMode)) {
+            log.info("Web执行模式: async（I/O线程数={}）", ioThreads);
+            ioThreadPool = new ThreadPoolExecutor(ioThreads, ioThreads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(ioQueueCapacity), namedThreadFactory("web-io"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            return ioThreadPool;
+        }
+        log.info("Web执行模式: sync");
+        return Runnable::run;
+    }
+
+    /**
+     * virtual模式下让Tomcat使用虚拟线程处理请求
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> virtualThreadTomcatCustomizer() {
+        return factory -> {
+            if ("virtual".equalsIgnoreCase(executionMode) && getVirtualThreadExecutor() != null) {
+                factory.addProtocolHandlerCustomizers(handler -> handler.setExecutor(virtualThreadExecutor));
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (ioThreadPool != null) {
+            ioThreadPool.shutdown();
+        }
+        if (virtualThreadExecutor != null) {
+            virtualThreadExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 通过反射创建虚拟线程执行器，保持Java 8编译兼容
+     *
+     * @return 虚拟线程执行器，JDK不支持时返回null
+     */
+    private synchronized ExecutorService getVirtualThreadExecutor() {
+        if (virtualThreadExecutor == null) {
+            try {
+                virtualThreadExecutor = (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                log.warn("当前JDK（{}）不支持虚拟线程，virtual模式回退为async", System.getProperty("java.version"));
+                executionMode = "async";
+            }
+        }
+        return virtualThreadExecutor;
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.shipmodel.config;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * 接口中阻塞I/O使用的执行器，由web.execution.mode决定在当前线程、I/O线程池还是虚拟线程上执行。
+ * 刻意不实现Executor接口：容器中出现Executor类型的Bean时，Spring Boot不再创建默认的
+ * applicationTaskExecutor，@Async和Spring MVC异步处理会失去配置好的线程池。
+ */
+public final class WebIoExecutor {
+
+    private final Executor delegate;
+
+    WebIoExecutor(Executor delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * 在执行器上运行任务
+     *
+     * @param task 任务
+     * @return 任务结果
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, delegate);
+    }
+}
@@ -1,10 +1,19 @@
 package com.shipmodel.controller;
 
+import com.shipmodel.config.WebIoExecutor;
 import com.shipmodel.service.BlenderService;
+import com.shipmodel.service.DiagnosticsService;
+import com.shipmodel.service.JobTraceService;
+import com.shipmodel.service.TextureIngestService;
+import com.shipmodel.service.PreviewService;
+import com.shipmodel.dto.DiagnosticsReport;
 import com.shipmodel.dto.TextureMappingRequest;
 import com.shipmodel.dto.TextureMappingResponse;
+import com.shipmodel.trace.JobContext;
+import com.shipmodel.trace.JobTrace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
@@ -33,7 +42,11 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
 
@@ -52,13 +65,49 @@ public class ShipModelController {
     @Value("${server.base.url:#{null}}")
     private String serverBaseUrl; // 服务器基础URL配置
 
+    // 图片SFTP服务器地址
+    @Value("${sftp.host:10.199.194.144}")
+    private String sftpHost;
+
+    @Value("${sftp.port:5000}")
+    private int sftpPort;
+
+    @Value("${sftp.username:root}")
+    private String sftpUsername;
+
+    @Value("${sftp.password:}")
+    private String sftpPassword;
+
     // 注入Blender服务
     private final BlenderService blenderService;
 
-    // 构造函数，通过依赖注入BlenderService
+    // 注入预览图服务
+    private final PreviewService previewService;
+
+    // 注入诊断服务
+    private final DiagnosticsService diagnosticsService;
+
+    // 注入任务时间线服务
+    private final JobTraceService jobTraceService;
+
+    // 纹理目录监听服务，仅在texture.ingest.enabled=true时存在
+    private final ObjectProvider<TextureIngestService> textureIngestService;
+
+    // 阻塞I/O执行器，由web.execution.mode决定（同步、I/O线程池或虚拟线程）
+    private final WebIoExecutor ioExecutor;
+
+    // 构造函数，通过依赖注入各服务和I/O执行器
     @Autowired
-    public ShipModelController(BlenderService blenderService) {
+    public ShipModelController(BlenderService blenderService, PreviewService previewService,
+                               DiagnosticsService diagnosticsService, JobTraceService jobTraceService,
+                               ObjectProvider<TextureIngestService> textureIngestService,
+                               WebIoExecutor ioExecutor) {
         this.blenderService = blenderService;
+        this.previewService = previewService;
+        this.diagnosticsService = diagnosticsService;
+        this.jobTraceService = jobTraceService;
+        this.textureIngestService = textureIngestService;
+        this.ioExecutor = ioExecutor;
     }
     
     /**
@@ -88,51 +137,36 @@ public class ShipModelController {
     }
     
     /**
-     * 路径配置检查接口，用于验证模型和纹理文件路径配置是否正确
+     * 路径配置检查接口，检查Blender程序、脚本、模型/纹理/输出目录、SFTP和HTTP服务是否可用。
+     * 只做轻量检查，不执行贴图任务，结果在短时间内缓存
      * 
-     * @return 包含路径检查结果的响应
+     * @return 包含各检查项状态和耗时的响应
      */
-    @Operation(summary = "检查路径配置", description = "检查模型和纹理文件路径配置是否正确")
+    @Operation(summary = "检查路径配置", description = "检查Blender、目录配置和外部服务是否可用，不执行贴图任务")
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "路径检查成功", 
+        @ApiResponse(responseCode = "200", description = "全部检查通过", 
                     content = @Content(mediaType = "application/json", 
-                    schema = @Schema(implementation = Map.class))),
-        @ApiResponse(responseCode = "500", description = "路径检查失败", 
+                    schema = @Schema(implementation = DiagnosticsReport.class))),
+        @ApiResponse(responseCode = "500", description = "存在检查失败项", 
                     content = @Content(mediaType = "application/json", 
-                    schema = @Schema(implementation = Map.class)))
+                    schema = @Schema(implementation = DiagnosticsReport.class)))
     })
     @GetMapping("/check-paths")
-    public ResponseEntity<Map<String, Object>> checkPaths() {
+    public CompletableFuture<ResponseEntity<DiagnosticsReport>> checkPaths() {
+        return runOnIoExecutor(this::doCheckPaths);
+    }
+
+    private ResponseEntity<DiagnosticsReport> doCheckPaths() {
         // 记录API调用日志
         log.info("路径检查API被调用");
-        
-        // 准备响应数据
-        Map<String, Object> response = new HashMap<>();
-        
-        try {
-            // 获取服务实现类中的路径信息
-            response.put("success", true);
-            response.put("message", "路径检查完成");
-            response.put("info", "请查看服务器日志获取详细路径信息");
-            response.put("serverBaseUrl", serverBaseUrl); // 返回当前配置的服务器基础URL
-            
-            // 触发日志记录，执行一个简单的贴图操作来测试路径配置
-            blenderService.executeTextureMappingScript("02_chuizhi", "20250522");
-            
-            // 返回200 OK状态码和响应数据
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            // 记录错误日志
-            log.error("路径检查失败: {}", e.getMessage(), e);
-            
-            // 准备错误响应
-            response.put("success", false);
-            response.put("message", "路径检查失败");
-            response.put("error", e.getMessage());
-            
-            // 返回500 Internal Server Error状态码和错误响应
-            return ResponseEntity.status(500).body(response);
+
+        DiagnosticsReport report = diagnosticsService.runDiagnostics();
+        if (!report.isSuccess()) {
+            // 返回500 Internal Server Error状态码和检查结果
+            return ResponseEntity.status(500).body(report);
         }
+        // 返回200 OK状态码和检查结果
+        return ResponseEntity.ok(report);
     }
 
     /**
@@ -151,9 +185,24 @@ public class ShipModelController {
                     schema = @Schema(implementation = TextureMappingResponse.class)))
     })
     @PostMapping("/texture-mapping")
-    public ResponseEntity<TextureMappingResponse> processTextureMapping(
+    public CompletableFuture<ResponseEntity<TextureMappingResponse>> processTextureMapping(
             @Parameter(description = "纹理贴图请求参数", required = true)
             @RequestBody TextureMappingRequest request) {
+        // 分配任务关联ID，I/O线程上的日志、Blender脚本日志和各阶段耗时都使用该ID
+        JobTrace trace = jobTraceService.start("texture-mapping");
+        long submittedAt = System.currentTimeMillis();
+        return runOnIoExecutor(() -> {
+            trace.addSpan("queue_wait", "java", submittedAt, System.currentTimeMillis(), null);
+            JobContext.attach(trace);
+            try {
+                return doProcessTextureMapping(request, trace);
+            } finally {
+                JobContext.detach();
+            }
+        });
+    }
+
+    private ResponseEntity<TextureMappingResponse> doProcessTextureMapping(TextureMappingRequest request, JobTrace trace) {
         // 记录收到的请求信息
         log.info("接收到纹理贴图请求: {}", request);
         
@@ -188,9 +237,22 @@ public class ShipModelController {
             response.setSuccess(true);
             response.setMessage("纹理贴图完成");
             response.setModelUrl("/models/" + outputModelPath); // 设置输出模型的URL路径
+            response.setJobId(trace.getJobId());
+            
+            // 渲染（或复用缓存的）预览图，供列表页直接展示
+            long postProcessingStart = System.currentTimeMillis();
+            Map<String, String> previewUrls = new LinkedHashMap<>();
+            for (Map.Entry<String, String> preview : previewService.generatePreviews(outputModelPath).entrySet()) {
+                previewUrls.put(preview.getKey(), "/models/" + preview.getValue());
+            }
+            if (!previewUrls.isEmpty()) {
+                response.setPreviewUrls(previewUrls);
+            }
+            JobContext.recordSpan("post_processing", postProcessingStart, System.currentTimeMillis());
             
             // 记录成功日志
             log.info("纹理贴图完成: {}", outputModelPath);
+            jobTraceService.finish(trace, null);
         
             // 返回200 OK状态码和成功响应
             return ResponseEntity.ok(response);
@@ -202,19 +264,108 @@ public class ShipModelController {
             TextureMappingResponse response = new TextureMappingResponse();
             response.setSuccess(false);
             response.setMessage("处理失败: " + e.getMessage());
+            response.setJobId(trace.getJobId());
+            jobTraceService.finish(trace, e);
             
             // 返回500 Internal Server Error状态码和错误响应
             return ResponseEntity.status(500).body(response);
         }
     }
 
+    /**
+     * 任务时间线接口，查询一次贴图任务各阶段（排队、输入下载、进程启动、导入、各相机投影、导出、后处理）的耗时
+     * 
+     * @param jobId 任务关联ID（贴图接口响应中的jobId）
+     * @return 任务时间线
+     */
+    @Operation(summary = "任务时间线", description = "根据任务关联ID查询贴图任务各阶段的耗时")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "查询成功",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = JobTrace.class))),
+        @ApiResponse(responseCode = "404", description = "任务不存在或已从内存中淘汰")
+    })
+    @GetMapping("/jobs/{jobId}/timeline")
+    public ResponseEntity<JobTrace> getJobTimeline(
+            @Parameter(description = "任务关联ID", required = true)
+            @PathVariable String jobId) {
+        JobTrace trace = jobTraceService.getTrace(jobId);
+        if (trace == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(trace);
+    }
+
+    /**
+     * 慢任务接口，返回最近耗时超过阈值（trace.slow-job.threshold-ms）的任务时间线
+     * 
+     * @return 慢任务列表，按结束时间倒序
+     */
+    @Operation(summary = "慢任务列表", description = "返回最近耗时超过阈值的贴图任务及其各阶段耗时")
+    @GetMapping("/jobs/slow")
+    public ResponseEntity<List<JobTrace>> getSlowJobs() {
+        return ResponseEntity.ok(jobTraceService.getSlowJobs());
+    }
+
+    /**
+     * 纹理预生成状态接口，返回纹理目录监听是否启用及排队中的预生成任务数量
+     * 
+     * @return 预生成状态
+     */
+    @Operation(summary = "纹理预生成状态", description = "返回纹理目录监听是否启用及排队中的预生成任务数量")
+    @GetMapping("/ingest/status")
+    public ResponseEntity<Map<String, Object>> getIngestStatus() {
+        TextureIngestService ingestService = textureIngestService.getIfAvailable();
+        Map<String, Object> response = new HashMap<>();
+        response.put("enabled", ingestService != null);
+        response.put("pendingJobs", ingestService != null ? ingestService.getPendingJobCount() : 0);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 纹理目录扫描接口，立即扫描纹理目录并为新出现的完整纹理集排队预生成任务
+     * （例如网络挂载目录没有文件事件、又不想等待下一次轮询时）
+     * 
+     * @return 本次排队的任务数量和当前排队任务数量
+     */
+    @Operation(summary = "扫描纹理目录", description = "立即扫描纹理目录，为新出现的完整纹理集排队预生成任务")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "扫描完成",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = Map.class))),
+        @ApiResponse(responseCode = "400", description = "纹理目录监听未启用",
+                    content = @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = Map.class)))
+    })
+    @PostMapping("/ingest/scan")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> scanTextures() {
+        return runOnIoExecutor(() -> {
+            TextureIngestService ingestService = textureIngestService.getIfAvailable();
+            Map<String, Object> response = new HashMap<>();
+            if (ingestService == null) {
+                response.put("success", false);
+                response.put("message", "纹理目录监听未启用（texture.ingest.enabled）");
+                return ResponseEntity.badRequest().body(response);
+            }
+            log.info("纹理目录扫描API被调用");
+            response.put("success", true);
+            response.put("queued", ingestService.scanNow());
+            response.put("pendingJobs", ingestService.getPendingJobCount());
+            return ResponseEntity.ok(response);
+        });
+    }
+
     /**
      * 图片代理API，用于访问SFTP上的图片
      * @param path 图片在SFTP上的路径
      * @return 图片字节数组
      */
     @GetMapping(value = "/api/images", produces = MediaType.IMAGE_JPEG_VALUE)
-    public ResponseEntity<byte[]> getImage(@RequestParam String path) {
+    public CompletableFuture<ResponseEntity<byte[]>> getImage(@RequestParam String path) {
+        return runOnIoExecutor(() -> doGetImage(path));
+    }
+
+    private ResponseEntity<byte[]> doGetImage(String path) {
         try {
             log.info("获取图片请求: {}", path);
             
@@ -233,8 +384,8 @@ public class ShipModelController {
             try {
                 // 创建SSH客户端
                 JSch jsch = new JSch();
-                Session session = jsch.getSession("root", "10.199.194.144", 5000);
-                session.setPassword("205064");
+                Session session = jsch.getSession(sftpUsername, sftpHost, sftpPort);
+                session.setPassword(sftpPassword);
                 session.setConfig("StrictHostKeyChecking", "no");
                 session.connect();
                 
@@ -275,4 +426,14 @@ public class ShipModelController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * 在I/O执行器上执行阻塞操作；sync和virtual模式下直接在当前请求线程执行
+     *
+     * @param task 接口处理逻辑
+     * @return 处理结果
+     */
+    private <T> CompletableFuture<T> runOnIoExecutor(Supplier<T> task) {
+        return ioExecutor.supplyAsync(task);
+    }
 } 
\ No newline at end of file
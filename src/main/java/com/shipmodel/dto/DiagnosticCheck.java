@@ -0,0 +1,60 @@
+package com.shipmodel.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "单项诊断检查结果")
+public class DiagnosticCheck {
+    @Schema(description = "检查项名称", example = "blenderExecutable")
+    private String name;
+    
+    @Schema(description = "检查状态：UP正常，DOWN异常，SKIPPED未配置而跳过", example = "UP")
+    private String status;
+    
+    @Schema(description = "检查耗时（毫秒）", example = "3")
+    private long latencyMs;
+    
+    @Schema(description = "检查详情", example = "E:/New Folder/blender.exe")
+    private String detail;
+    
+    public DiagnosticCheck() {
+    }
+    
+    public DiagnosticCheck(String name, String status, long latencyMs, String detail) {
+        this.name = name;
+        this.status = status;
+        this.latencyMs = latencyMs;
+        this.detail = detail;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public long getLatencyMs() {
+        return latencyMs;
+    }
+    
+    public void setLatencyMs(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+    
+    public String getDetail() {
+        return detail;
+    }
+    
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+}
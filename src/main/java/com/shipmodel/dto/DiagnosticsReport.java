@@ -0,0 +1,63 @@
+package com.shipmodel.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "诊断检查报告")
+public class DiagnosticsReport {
+    @Schema(description = "所有检查项是否正常（跳过的检查项不影响结果）", example = "true")
+    private boolean success;
+    
+    @Schema(description = "检查完成时间（毫秒时间戳）", example = "1747917600000")
+    private long checkedAt;
+    
+    @Schema(description = "是否为缓存的检查结果", example = "false")
+    private boolean cached;
+    
+    @Schema(description = "本次检查总耗时（毫秒）", example = "12")
+    private long totalLatencyMs;
+    
+    @Schema(description = "各检查项结果")
+    private List<DiagnosticCheck> checks;
+    
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+    
+    public long getCheckedAt() {
+        return checkedAt;
+    }
+    
+    public void setCheckedAt(long checkedAt) {
+        this.checkedAt = checkedAt;
+    }
+    
+    public boolean isCached() {
+        return cached;
+    }
+    
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+    
+    public long getTotalLatencyMs() {
+        return totalLatencyMs;
+    }
+    
+    public void setTotalLatencyMs(long totalLatencyMs) {
+        this.totalLatencyMs = totalLatencyMs;
+    }
+    
+    public List<DiagnosticCheck> getChecks() {
+        return checks;
+    }
+    
+    public void setChecks(List<DiagnosticCheck> checks) {
+        this.checks = checks;
+    }
+}
@@ -2,6 +2,8 @@ package com.shipmodel.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 
+import java.util.Map;
+
 @Schema(description = "纹理贴图处理结果")
 public class TextureMappingResponse {
     @Schema(description = "操作是否成功", example = "true")
@@ -13,6 +15,12 @@ public class TextureMappingResponse {
     @Schema(description = "贴图后模型的访问URL", example = "/models/02_chuizhi_20250522_20250522_204702.glb")
     private String modelUrl; // 贴图后模型的访问URL
     
+    @Schema(description = "模型预览图的访问URL（视图名称 -> URL）", example = "{\"top\": \"/models/02_chuizhi_20250522_20250522_204702_top.png\", \"side\": \"/models/02_chuizhi_20250522_20250522_204702_side.png\"}")
+    private Map<String, String> previewUrls; // 模型预览图的访问URL
+    
+    @Schema(description = "任务关联ID，可通过 /api/ship/jobs/{jobId}/timeline 查询各阶段耗时", example = "3f9a1c2b7d4e")
+    private String jobId; // 任务关联ID
+    
     public boolean isSuccess() {
         return success;
     }
@@ -36,4 +44,20 @@ public class TextureMappingResponse {
     public void setModelUrl(String modelUrl) {
         this.modelUrl = modelUrl;
     }
+    
+    public Map<String, String> getPreviewUrls() {
+        return previewUrls;
+    }
+    
+    public void setPreviewUrls(Map<String, String> previewUrls) {
+        this.previewUrls = previewUrls;
+    }
+    
+    public String getJobId() {
+        return jobId;
+    }
+    
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
 } 
\ No newline at end of file
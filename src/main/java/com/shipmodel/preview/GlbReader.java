@@ -0,0 +1,433 @@
+package com.shipmodel.preview;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GLB（二进制glTF 2.0）读取器，只解析预览渲染需要的部分：
+ * 三角形图元的POSITION、TEXCOORD_0、索引，以及材质的基础颜色和基础颜色纹理
+ */
+public final class GlbReader {
+
+    private static final int GLB_MAGIC = 0x46546C67; // "glTF"
+    private static final int CHUNK_JSON = 0x4E4F534A; // "JSON"
+    private static final int CHUNK_BIN = 0x004E4942; // "BIN\0"
+
+    private static final int MODE_TRIANGLES = 4;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final byte[] data;
+    private final ByteBuffer buffer;
+    private final int maxTextureSize;
+    private JsonNode gltf;
+    private int binOffset = -1;
+
+    private GlbReader(byte[] data, int maxTextureSize) {
+        this.data = data;
+        this.buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        this.maxTextureSize = maxTextureSize;
+    }
+
+    /**
+     * 读取GLB文件
+     *
+     * @param glbPath GLB文件路径
+     * @param maxTextureSize 纹理解码后的最大边长，超过时在解码阶段降采样以节省内存
+     * @return 合并后的预览网格
+     * @throws IOException 文件读取或格式错误
+     */
+    public static PreviewMesh read(Path glbPath, int maxTextureSize) throws IOException {
+        GlbReader reader = new GlbReader(Files.readAllBytes(glbPath), maxTextureSize);
+        reader.parseChunks(glbPath);
+        return reader.buildMesh();
+    }
+
+    private void parseChunks(Path glbPath) throws IOException {
+        if (data.length < 20 || buffer.getInt(0) != GLB_MAGIC) {
+            throw new IOException("不是有效的GLB文件: " + glbPath);
+        }
+        int length = Math.min(buffer.getInt(8), data.length);
+        int offset = 12;
+        while (offset + 8 <= length) {
+            int chunkLength = buffer.getInt(offset);
+            int chunkType = buffer.getInt(offset + 4);
+            int chunkStart = offset + 8;
+            if (chunkType == CHUNK_JSON && gltf == null) {
+                gltf = MAPPER.readTree(data, chunkStart, chunkLength);
+            } else if (chunkType == CHUNK_BIN && binOffset < 0) {
+                binOffset = chunkStart;
+            }
+            offset = chunkStart + chunkLength;
+        }
+        if (gltf == null) {
+            throw new IOException("GLB文件缺少JSON块: " + glbPath);
+        }
+    }
+
+    private PreviewMesh buildMesh() throws IOException {
+        List<float[]> positionParts = new ArrayList<>();
+        List<float[]> uvParts = new ArrayList<>();
+        List<int[]> triangleParts = new ArrayList<>();
+        List<Integer> materialParts = new ArrayList<>();
+        List<PreviewMesh.PreviewMaterial> materials = new ArrayList<>();
+        Map<Integer, Integer> materialIndexes = new HashMap<>();
+
+        // 遍历场景节点，收集每个网格实例及其世界矩阵
+        List<Integer> meshInstances = new ArrayList<>();
+        List<double[]> instanceMatrices = new ArrayList<>();
+        JsonNode nodes = gltf.path("nodes");
+        JsonNode scenes = gltf.path("scenes");
+        if (scenes.size() > 0) {
+            JsonNode scene = scenes.path(gltf.path("scene").asInt(0));
+            for (JsonNode root : scene.path("nodes")) {
+                collectNode(nodes, root.asInt(), Matrix4.identity(), meshInstances, instanceMatrices);
+            }
+        } else {
+            for (int i = 0; i < nodes.size(); i++) {
+                collectNode(nodes, i, Matrix4.identity(), meshInstances, instanceMatrices);
+            }
+        }
+
+        int vertexBase = 0;
+        for (int m = 0; m < meshInstances.size(); m++) {
+            JsonNode mesh = gltf.path("meshes").path(meshInstances.get(m));
+            double[] matrix = instanceMatrices.get(m);
+            for (JsonNode primitive : mesh.path("primitives")) {
+                if (primitive.path("mode").asInt(MODE_TRIANGLES) != MODE_TRIANGLES
+                        || !primitive.path("attributes").has("POSITION")) {
+                    continue;
+                }
+                JsonNode attributes = primitive.path("attributes");
+                float[] positions = readFloats(attributes.path("POSITION").asInt(), 3);
+                int vertexCount = positions.length / 3;
+                toBlenderWorld(positions, matrix);
+
+                float[] uvs = attributes.has("TEXCOORD_0")
+                        ? readFloats(attributes.path("TEXCOORD_0").asInt(), 2)
+                        : new float[vertexCount * 2];
+
+                int[] indices;
+                if (primitive.has("indices")) {
+                    indices = readIndices(primitive.path("indices").asInt());
+                } else {
+                    indices = new int[vertexCount];
+                    for (int i = 0; i < vertexCount; i++) {
+                        indices[i] = i;
+                    }
+                }
+                int triangleIndexCount = indices.length - indices.length % 3;
+                int[] triangles = new int[triangleIndexCount];
+                for (int i = 0; i < triangleIndexCount; i++) {
+                    triangles[i] = indices[i] + vertexBase;
+                }
+
+                int gltfMaterial = primitive.path("material").asInt(-1);
+                Integer materialIndex = materialIndexes.get(gltfMaterial);
+                if (materialIndex == null) {
+                    materialIndex = materials.size();
+                    materials.add(readMaterial(gltfMaterial));
+                    materialIndexes.put(gltfMaterial, materialIndex);
+                }
+
+                positionParts.add(positions);
+                uvParts.add(uvs);
+                triangleParts.add(triangles);
+                materialParts.add(materialIndex);
+                vertexBase += vertexCount;
+            }
+        }
+
+        float[] positions = new float[vertexBase * 3];
+        float[] uvs = new float[vertexBase * 2];
+        int positionOffset = 0;
+        int uvOffset = 0;
+        for (int i = 0; i < positionParts.size(); i++) {
+            System.arraycopy(positionParts.get(i), 0, positions, positionOffset, positionParts.get(i).length);
+            System.arraycopy(uvParts.get(i), 0, uvs, uvOffset, uvParts.get(i).length);
+            positionOffset += positionParts.get(i).length;
+            uvOffset += uvParts.get(i).length;
+        }
+        int triangleIndexTotal = 0;
+        for (int[] part : triangleParts) {
+            triangleIndexTotal += part.length;
+        }
+        int[] triangles = new int[triangleIndexTotal];
+        int[] triangleMaterials = new int[triangleIndexTotal / 3];
+        int triangleOffset = 0;
+        for (int i = 0; i < triangleParts.size(); i++) {
+            int[] part = triangleParts.get(i);
+            System.arraycopy(part, 0, triangles, triangleOffset, part.length);
+            for (int t = triangleOffset / 3; t < (triangleOffset + part.length) / 3; t++) {
+                triangleMaterials[t] = materialParts.get(i);
+            }
+            triangleOffset += part.length;
+        }
+        return new PreviewMesh(positions, uvs, triangles, triangleMaterials, materials);
+    }
+
+    private void collectNode(JsonNode nodes, int nodeIndex, double[] parentMatrix,
+                             List<Integer> meshInstances, List<double[]> instanceMatrices) {
+        JsonNode node = nodes.path(nodeIndex);
+        double[] world = Matrix4.multiply(parentMatrix, localMatrix(node));
+        if (node.has("mesh")) {
+            meshInstances.add(node.path("mesh").asInt());
+            instanceMatrices.add(world);
+        }
+        for (JsonNode child : node.path("children")) {
+            collectNode(nodes, child.asInt(), world, meshInstances, instanceMatrices);
+        }
+    }
+
+    private double[] localMatrix(JsonNode node) {
+        if (node.has("matrix")) {
+            double[] matrix = new double[16];
+            for (int i = 0; i < 16; i++) {
+                matrix[i] = node.path("matrix").path(i).asDouble();
+            }
+            return matrix;
+        }
+        JsonNode t = node.path("translation");
+        JsonNode r = node.path("rotation");
+        JsonNode s = node.path("scale");
+        return Matrix4.fromTrs(
+                t.path(0).asDouble(0), t.path(1).asDouble(0), t.path(2).asDouble(0),
+                r.path(0).asDouble(0), r.path(1).asDouble(0), r.path(2).asDouble(0), r.path(3).asDouble(1),
+                s.path(0).asDouble(1), s.path(1).asDouble(1), s.path(2).asDouble(1));
+    }
+
+    /**
+     * 应用节点世界矩阵，并从glTF坐标系（Y轴向上）转换回Blender坐标系（Z轴向上）
+     */
+    private static void toBlenderWorld(float[] positions, double[] matrix) {
+        for (int i = 0; i < positions.length; i += 3) {
+            double x = positions[i];
+            double y = positions[i + 1];
+            double z = positions[i + 2];
+            double wx = matrix[0] * x + matrix[4] * y + matrix[8] * z + matrix[12];
+            double wy = matrix[1] * x + matrix[5] * y + matrix[9] * z + matrix[13];
+            double wz = matrix[2] * x + matrix[6] * y + matrix[10] * z + matrix[14];
+            positions[i] = (float) wx;
+            positions[i + 1] = (float) -wz;
+            positions[i + 2] = (float) wy;
+        }
+    }
+
+    private float[] readFloats(int accessorIndex, int components) throws IOException {
+        JsonNode accessor = gltf.path("accessors").path(accessorIndex);
+        int count = accessor.path("count").asInt();
+        int componentType = accessor.path("componentType").asInt();
+        boolean normalized = accessor.path("normalized").asBoolean(false);
+        int componentSize = componentSize(componentType);
+        int base = accessorBase(accessor);
+        int stride = accessorStride(accessor, componentSize * components);
+
+        float[] values = new float[count * components];
+        for (int i = 0; i < count; i++) {
+            int element = base + i * stride;
+            for (int c = 0; c < components; c++) {
+                int position = element + c * componentSize;
+                float value;
+                switch (componentType) {
+                    case 5126:
+                        value = buffer.getFloat(position);
+                        break;
+                    case 5121:
+                        value = buffer.get(position) & 0xFF;
+                        value = normalized ? value / 255f : value;
+                        break;
+                    case 5123:
+                        value = buffer.getShort(position) & 0xFFFF;
+                        value = normalized ? value / 65535f : value;
+                        break;
+                    case 5120:
+                        value = buffer.get(position);
+                        value = normalized ? Math.max(value / 127f, -1f) : value;
+                        break;
+                    case 5122:
+                        value = buffer.getShort(position);
+                        value = normalized ? Math.max(value / 32767f, -1f) : value;
+                        break;
+                    default:
+                        throw new IOException("不支持的访问器分量类型: " + componentType);
+                }
+                values[i * components + c] = value;
+            }
+        }
+        return values;
+    }
+
+    private int[] readIndices(int accessorIndex) throws IOException {
+        JsonNode accessor = gltf.path("accessors").path(accessorIndex);
+        int count = accessor.path("count").asInt();
+        int componentType = accessor.path("componentType").asInt();
+        int componentSize = componentSize(componentType);
+        int base = accessorBase(accessor);
+        int stride = accessorStride(accessor, componentSize);
+
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            int position = base + i * stride;
+            switch (componentType) {
+                case 5121:
+                    indices[i] = buffer.get(position) & 0xFF;
+                    break;
+                case 5123:
+                    indices[i] = buffer.getShort(position) & 0xFFFF;
+                    break;
+                case 5125:
+                    indices[i] = buffer.getInt(position);
+                    break;
+                default:
+                    throw new IOException("不支持的索引类型: " + componentType);
+            }
+        }
+        return indices;
+    }
+
+    private int accessorBase(JsonNode accessor) throws IOException {
+        if (!accessor.has("bufferView")) {
+            throw new IOException("不支持没有bufferView的访问器");
+        }
+        JsonNode bufferView = gltf.path("bufferViews").path(accessor.path("bufferView").asInt());
+        return bufferViewBase(bufferView) + accessor.path("byteOffset").asInt(0);
+    }
+
+    private int accessorStride(JsonNode accessor, int elementSize) {
+        JsonNode bufferView = gltf.path("bufferViews").path(accessor.path("bufferView").asInt());
+        int byteStride = bufferView.path("byteStride").asInt(0);
+        return byteStride > 0 ? byteStride : elementSize;
+    }
+
+    private int bufferViewBase(JsonNode bufferView) throws IOException {
+        if (binOffset < 0 || bufferView.path("buffer").asInt(0) != 0) {
+            throw new IOException("只支持GLB内嵌的二进制缓冲区");
+        }
+        return binOffset + bufferView.path("byteOffset").asInt(0);
+    }
+
+    private static int componentSize(int componentType) throws IOException {
+        switch (componentType) {
+            case 5120:
+            case 5121:
+                return 1;
+            case 5122:
+            case 5123:
+                return 2;
+            case 5125:
+            case 5126:
+                return 4;
+            default:
+                throw new IOException("不支持的访问器分量类型: " + componentType);
+        }
+    }
+
+    private PreviewMesh.PreviewMaterial readMaterial(int materialIndex) throws IOException {
+        JsonNode pbr = gltf.path("materials").path(materialIndex).path("pbrMetallicRoughness");
+        JsonNode factor = pbr.path("baseColorFactor");
+        int baseColor = (toByte(factor.path(0).asDouble(1)) << 16)
+                | (toByte(factor.path(1).asDouble(1)) << 8)
+                | toByte(factor.path(2).asDouble(1));
+        // 没有材质时使用浅灰色，便于区分未贴图的面
+        if (materialIndex < 0) {
+            baseColor = 0xC8C8C8;
+        }
+
+        PreviewMesh.PreviewMaterial material = new PreviewMesh.PreviewMaterial(baseColor, null, 0, 0);
+        if (pbr.has("baseColorTexture")) {
+            JsonNode texture = gltf.path("textures").path(pbr.path("baseColorTexture").path("index").asInt());
+            JsonNode image = gltf.path("images").path(texture.path("source").asInt(-1));
+            if (image.has("bufferView")) {
+                BufferedImage decoded = decodeImage(gltf.path("bufferViews").path(image.path("bufferView").asInt()));
+                if (decoded != null) {
+                    int width = decoded.getWidth();
+                    int height = decoded.getHeight();
+                    int[] texels = decoded.getRGB(0, 0, width, height, null, 0, width);
+                    material = new PreviewMesh.PreviewMaterial(baseColor, texels, width, height);
+                }
+            }
+        }
+        return material;
+    }
+
+    /**
+     * 解码内嵌图片，超过最大边长时通过源降采样读取，避免完整解码大尺寸纹理
+     */
+    private BufferedImage decodeImage(JsonNode bufferView) throws IOException {
+        int offset = bufferViewBase(bufferView);
+        int length = bufferView.path("byteLength").asInt();
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(data, offset, length))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int largest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, (largest + maxTextureSize - 1) / maxTextureSize);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static int toByte(double value) {
+        return (int) Math.round(Math.max(0, Math.min(1, value)) * 255);
+    }
+
+    /**
+     * 列主序4x4矩阵工具（与glTF约定一致）
+     */
+    private static final class Matrix4 {
+
+        static double[] identity() {
+            return new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1};
+        }
+
+        static double[] multiply(double[] a, double[] b) {
+            double[] result = new double[16];
+            for (int col = 0; col < 4; col++) {
+                for (int row = 0; row < 4; row++) {
+                    double sum = 0;
+                    for (int k = 0; k < 4; k++) {
+                        sum += a[k * 4 + row] * b[col * 4 + k];
+                    }
+                    result[col * 4 + row] = sum;
+                }
+            }
+            return result;
+        }
+
+        static double[] fromTrs(double tx, double ty, double tz,
+                                double qx, double qy, double qz, double qw,
+                                double sx, double sy, double sz) {
+            return new double[]{
+                    (1 - 2 * (qy * qy + qz * qz)) * sx, 2 * (qx * qy + qz * qw) * sx, 2 * (qx * qz - qy * qw) * sx, 0,
+                    2 * (qx * qy - qz * qw) * sy, (1 - 2 * (qx * qx + qz * qz)) * sy, 2 * (qy * qz + qx * qw) * sy, 0,
+                    2 * (qx * qz + qy * qw) * sz, 2 * (qy * qz - qx * qw) * sz, (1 - 2 * (qx * qx + qy * qy)) * sz, 0,
+                    tx, ty, tz, 1
+            };
+        }
+    }
+}
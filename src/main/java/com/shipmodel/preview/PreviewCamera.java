@@ -0,0 +1,129 @@
+package com.shipmodel.preview;
+
+/**
+ * 预览透视相机，位姿参数与Blender脚本中camera_configs一致（位置 + XYZ欧拉角，Z轴向上）
+ */
+public class PreviewCamera {
+
+    // Blender默认相机参数：焦距50mm，传感器36mm x 24mm
+    private static final double DEFAULT_LENS = 50.0;
+    private static final double DEFAULT_SENSOR_WIDTH = 36.0;
+    private static final double DEFAULT_SENSOR_HEIGHT = 24.0;
+
+    private final double[] position;
+    private final double[] right; // 相机局部X轴
+    private final double[] up; // 相机局部Y轴
+    private final double[] back; // 相机局部Z轴，相机朝向其反方向
+    private final double tanHalfFov;
+
+    private PreviewCamera(double[] position, double[] right, double[] up, double[] back, double tanHalfFov) {
+        this.position = position;
+        this.right = right;
+        this.up = up;
+        this.back = back;
+        this.tanHalfFov = tanHalfFov;
+    }
+
+    /**
+     * 按Blender相机位姿创建相机，使用Blender默认镜头参数
+     *
+     * @param location 相机位置
+     * @param rotation XYZ欧拉角（弧度）
+     * @return 预览相机
+     */
+    public static PreviewCamera fromBlender(double[] location, double[] rotation) {
+        double[][] axes = eulerAxes(rotation);
+        double tanHalfFov = DEFAULT_SENSOR_WIDTH / (2 * DEFAULT_LENS);
+        return new PreviewCamera(location.clone(), axes[0], axes[1], axes[2], tanHalfFov);
+    }
+
+    /**
+     * 按Blender XYZ欧拉角旋转一个点（绕原点）
+     *
+     * @param rotation XYZ欧拉角（弧度）
+     * @return 旋转后的坐标
+     */
+    public static double[] rotate(double[] rotation, double x, double y, double z) {
+        double[][] axes = eulerAxes(rotation);
+        return new double[]{
+                axes[0][0] * x + axes[1][0] * y + axes[2][0] * z,
+                axes[0][1] * x + axes[1][1] * y + axes[2][1] * z,
+                axes[0][2] * x + axes[1][2] * y + axes[2][2] * z};
+    }
+
+    /**
+     * Blender XYZ欧拉角对应的旋转矩阵 Rz * Ry * Rx 的三列（即旋转后的X、Y、Z轴）
+     */
+    private static double[][] eulerAxes(double[] rotation) {
+        double cx = Math.cos(rotation[0]), sx = Math.sin(rotation[0]);
+        double cy = Math.cos(rotation[1]), sy = Math.sin(rotation[1]);
+        double cz = Math.cos(rotation[2]), sz = Math.sin(rotation[2]);
+        return new double[][]{
+                {cz * cy, sz * cy, -sy},
+                {cz * sy * sx - sz * cx, sz * sy * sx + cz * cx, cy * sx},
+                {cz * sy * cx + sz * sx, sz * sy * cx - cz * sx, cy * cx}};
+    }
+
+    /**
+     * 按脚本project_from_view_manual的透视公式计算世界坐标点的纹理坐标
+     *
+     * @return {u, v}（Blender约定，v轴向上），点在相机后方时返回null
+     */
+    public double[] projectToUv(double x, double y, double z) {
+        double dx = x - position[0];
+        double dy = y - position[1];
+        double dz = z - position[2];
+        double depth = -(back[0] * dx + back[1] * dy + back[2] * dz);
+        if (depth <= 0) {
+            return null;
+        }
+        double screenX = (right[0] * dx + right[1] * dy + right[2] * dz) / depth;
+        double screenY = (up[0] * dx + up[1] * dy + up[2] * dz) / depth;
+        double aspectRatio = DEFAULT_SENSOR_WIDTH / DEFAULT_SENSOR_HEIGHT;
+        return new double[]{
+                0.5 + screenX / (2 * tanHalfFov * aspectRatio),
+                0.5 + screenY / (2 * tanHalfFov)};
+    }
+
+    /**
+     * 保持相机朝向不变，沿视线方向移动相机使整个网格位于视野内
+     *
+     * @param mesh 预览网格
+     * @return 调整位置后的相机
+     */
+    public PreviewCamera fitTo(PreviewMesh mesh) {
+        if (mesh.getVertexCount() == 0) {
+            return this;
+        }
+        double[] bounds = mesh.getBounds();
+        double[] center = {
+                (bounds[0] + bounds[3]) / 2, (bounds[1] + bounds[4]) / 2, (bounds[2] + bounds[5]) / 2};
+        double radius = Math.sqrt(Math.pow(bounds[3] - bounds[0], 2)
+                + Math.pow(bounds[4] - bounds[1], 2) + Math.pow(bounds[5] - bounds[2], 2)) / 2;
+        double sinHalfFov = tanHalfFov / Math.sqrt(1 + tanHalfFov * tanHalfFov);
+        double distance = radius / sinHalfFov * 1.05;
+        double[] fitted = {
+                center[0] + back[0] * distance, center[1] + back[1] * distance, center[2] + back[2] * distance};
+        return new PreviewCamera(fitted, right, up, back, tanHalfFov);
+    }
+
+    public double[] getPosition() {
+        return position;
+    }
+
+    public double[] getRight() {
+        return right;
+    }
+
+    public double[] getUp() {
+        return up;
+    }
+
+    public double[] getBack() {
+        return back;
+    }
+
+    public double getTanHalfFov() {
+        return tanHalfFov;
+    }
+}
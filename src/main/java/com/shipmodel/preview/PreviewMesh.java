@@ -0,0 +1,128 @@
+package com.shipmodel.preview;
+
+import java.util.List;
+
+/**
+ * 预览渲染用的三角网格，所有图元已合并并变换到Blender世界坐标系（Z轴向上）
+ */
+public class PreviewMesh {
+
+    private final float[] positions; // 顶点坐标，每个顶点3个分量
+    private final float[] uvs; // 纹理坐标，每个顶点2个分量（glTF约定，v轴向下）
+    private final int[] triangles; // 三角形顶点索引，每个三角形3个
+    private final int[] triangleMaterials; // 每个三角形对应的材质索引
+    private final List<PreviewMaterial> materials;
+
+    public PreviewMesh(float[] positions, float[] uvs, int[] triangles, int[] triangleMaterials,
+                       List<PreviewMaterial> materials) {
+        this.positions = positions;
+        this.uvs = uvs;
+        this.triangles = triangles;
+        this.triangleMaterials = triangleMaterials;
+        this.materials = materials;
+    }
+
+    public int getVertexCount() {
+        return positions.length / 3;
+    }
+
+    public int getTriangleCount() {
+        return triangles.length / 3;
+    }
+
+    public float[] getPositions() {
+        return positions;
+    }
+
+    public float[] getUvs() {
+        return uvs;
+    }
+
+    public int[] getTriangles() {
+        return triangles;
+    }
+
+    public int[] getTriangleMaterials() {
+        return triangleMaterials;
+    }
+
+    public List<PreviewMaterial> getMaterials() {
+        return materials;
+    }
+
+    /**
+     * 按Blender XYZ欧拉角旋转网格（绕原点），与脚本中投影前设置模型rotation_euler的处理一致
+     *
+     * @param rotation XYZ欧拉角（弧度）
+     * @return 旋转后的网格，纹理坐标、三角形和材质与原网格共享；旋转角均为0时返回原网格
+     */
+    public PreviewMesh rotated(double[] rotation) {
+        if (rotation[0] == 0 && rotation[1] == 0 && rotation[2] == 0) {
+            return this;
+        }
+        float[] rotatedPositions = new float[positions.length];
+        for (int i = 0; i < positions.length; i += 3) {
+            double[] p = PreviewCamera.rotate(rotation, positions[i], positions[i + 1], positions[i + 2]);
+            rotatedPositions[i] = (float) p[0];
+            rotatedPositions[i + 1] = (float) p[1];
+            rotatedPositions[i + 2] = (float) p[2];
+        }
+        return new PreviewMesh(rotatedPositions, uvs, triangles, triangleMaterials, materials);
+    }
+
+    /**
+     * 计算包围盒
+     *
+     * @return {minX, minY, minZ, maxX, maxY, maxZ}
+     */
+    public double[] getBounds() {
+        double[] bounds = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE,
+                -Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (int i = 0; i < positions.length; i += 3) {
+            for (int c = 0; c < 3; c++) {
+                bounds[c] = Math.min(bounds[c], positions[i + c]);
+                bounds[c + 3] = Math.max(bounds[c + 3], positions[i + c]);
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * 预览材质：基础颜色，可选基础颜色纹理
+     */
+    public static class PreviewMaterial {
+
+        private final int baseColor; // RGB基础颜色（glTF baseColorFactor）
+        private final int[] texels; // 纹理像素（RGB），无纹理时为null
+        private final int textureWidth;
+        private final int textureHeight;
+
+        public PreviewMaterial(int baseColor, int[] texels, int textureWidth, int textureHeight) {
+            this.baseColor = baseColor;
+            this.texels = texels;
+            this.textureWidth = textureWidth;
+            this.textureHeight = textureHeight;
+        }
+
+        /**
+         * 按纹理坐标采样颜色（最近邻，重复寻址），并乘以基础颜色
+         */
+        public int sample(float u, float v) {
+            if (texels == null) {
+                return baseColor;
+            }
+            float fu = u - (float) Math.floor(u);
+            float fv = v - (float) Math.floor(v);
+            int x = Math.min((int) (fu * textureWidth), textureWidth - 1);
+            int y = Math.min((int) (fv * textureHeight), textureHeight - 1);
+            int texel = texels[y * textureWidth + x];
+            if (baseColor == 0xFFFFFF) {
+                return texel;
+            }
+            int r = ((texel >> 16) & 0xFF) * ((baseColor >> 16) & 0xFF) / 255;
+            int g = ((texel >> 8) & 0xFF) * ((baseColor >> 8) & 0xFF) / 255;
+            int b = (texel & 0xFF) * (baseColor & 0xFF) / 255;
+            return (r << 16) | (g << 8) | b;
+        }
+    }
+}
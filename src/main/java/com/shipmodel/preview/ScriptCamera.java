@@ -0,0 +1,38 @@
+package com.shipmodel.preview;
+
+/**
+ * Blender脚本camera_configs中的相机配置（位置、XYZ欧拉角、投影时模型的旋转角度），
+ * 修改脚本中的相机时需同步修改这里
+ */
+public enum ScriptCamera {
+
+    TOP("top", new double[]{0, 0, 16}, new double[]{0, 0, Math.PI / 2}, new double[]{0, 0, 0}),
+    SIDE("side", new double[]{14, 0, 1.3}, new double[]{Math.PI / 2, 0, Math.PI / 2}, new double[]{0, Math.PI / 2, 0});
+
+    private final String viewName;
+    private final double[] location;
+    private final double[] rotation;
+    private final double[] modelRotation;
+
+    ScriptCamera(String viewName, double[] location, double[] rotation, double[] modelRotation) {
+        this.viewName = viewName;
+        this.location = location;
+        this.rotation = rotation;
+        this.modelRotation = modelRotation;
+    }
+
+    public String getViewName() {
+        return viewName;
+    }
+
+    public double[] getModelRotation() {
+        return modelRotation.clone();
+    }
+
+    /**
+     * 创建与脚本相机位姿一致的预览相机
+     */
+    public PreviewCamera toPreviewCamera() {
+        return PreviewCamera.fromBlender(location, rotation);
+    }
+}
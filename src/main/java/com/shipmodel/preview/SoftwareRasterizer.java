@@ -0,0 +1,237 @@
+package com.shipmodel.preview;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * 纯CPU软件光栅化器：透视校正纹理映射 + 深度缓冲 + 简单朝向明暗。
+ * 画面按图块划分，三角形先分桶到图块，再在ForkJoinPool上并行渲染各图块，图块之间无共享写入。
+ */
+public class SoftwareRasterizer {
+
+    private static final int TILE_SIZE = 64;
+    private static final double NEAR_PLANE = 1e-3;
+
+    private final ForkJoinPool pool;
+
+    public SoftwareRasterizer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * 渲染网格
+     *
+     * @param mesh 预览网格
+     * @param camera 相机
+     * @param width 图像宽度
+     * @param height 图像高度
+     * @return 渲染结果（未覆盖的像素为透明）
+     */
+    public BufferedImage render(PreviewMesh mesh, PreviewCamera camera, int width, int height) {
+        int vertexCount = mesh.getVertexCount();
+        int triangleCount = mesh.getTriangleCount();
+        float[] screenX = new float[vertexCount];
+        float[] screenY = new float[vertexCount];
+        float[] inverseDepth = new float[vertexCount]; // 1/深度，<=0表示在近平面之后
+        float[] shades = new float[triangleCount];
+
+        // 1. 并行投影顶点
+        runParallel(vertexCount, i -> projectVertex(mesh, camera, width, height, i, screenX, screenY, inverseDepth));
+
+        // 2. 并行计算每个三角形的明暗系数
+        runParallel(triangleCount, t -> shades[t] = shade(mesh, camera, t));
+
+        // 3. 三角形按屏幕包围盒分桶到图块
+        int tilesX = (width + TILE_SIZE - 1) / TILE_SIZE;
+        int tilesY = (height + TILE_SIZE - 1) / TILE_SIZE;
+        int[][] bins = binTriangles(mesh, screenX, screenY, inverseDepth, width, height, tilesX, tilesY);
+
+        // 4. 并行光栅化各图块
+        int[] pixels = new int[width * height];
+        float[] depthBuffer = new float[width * height];
+        runParallel(bins.length, tile -> {
+            int x0 = (tile % tilesX) * TILE_SIZE;
+            int y0 = (tile / tilesX) * TILE_SIZE;
+            int x1 = Math.min(x0 + TILE_SIZE, width);
+            int y1 = Math.min(y0 + TILE_SIZE, height);
+            for (int triangle : bins[tile]) {
+                rasterizeTriangle(mesh, triangle, shades[triangle], screenX, screenY, inverseDepth,
+                        x0, y0, x1, y1, width, pixels, depthBuffer);
+            }
+        });
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, width, height, pixels, 0, width);
+        return image;
+    }
+
+    private static void projectVertex(PreviewMesh mesh, PreviewCamera camera, int width, int height, int i,
+                                      float[] screenX, float[] screenY, float[] inverseDepth) {
+        float[] positions = mesh.getPositions();
+        double[] origin = camera.getPosition();
+        double dx = positions[i * 3] - origin[0];
+        double dy = positions[i * 3 + 1] - origin[1];
+        double dz = positions[i * 3 + 2] - origin[2];
+        double viewX = dot(camera.getRight(), dx, dy, dz);
+        double viewY = dot(camera.getUp(), dx, dy, dz);
+        double depth = -dot(camera.getBack(), dx, dy, dz);
+        if (depth <= NEAR_PLANE) {
+            inverseDepth[i] = 0;
+            return;
+        }
+        // 与脚本project_from_view_manual相同的透视投影，屏幕Y轴向下
+        double scale = 2 * camera.getTanHalfFov() * depth;
+        screenX[i] = (float) ((0.5 + viewX / (scale * width / height)) * width);
+        screenY[i] = (float) ((0.5 - viewY / scale) * height);
+        inverseDepth[i] = (float) (1 / depth);
+    }
+
+    /**
+     * 根据面法线与视线方向的夹角计算明暗系数，不剔除背面（PLY模型的面朝向不一定一致）
+     */
+    private static float shade(PreviewMesh mesh, PreviewCamera camera, int triangle) {
+        float[] p = mesh.getPositions();
+        int[] triangles = mesh.getTriangles();
+        int a = triangles[triangle * 3] * 3;
+        int b = triangles[triangle * 3 + 1] * 3;
+        int c = triangles[triangle * 3 + 2] * 3;
+        double ux = p[b] - p[a], uy = p[b + 1] - p[a + 1], uz = p[b + 2] - p[a + 2];
+        double vx = p[c] - p[a], vy = p[c + 1] - p[a + 1], vz = p[c + 2] - p[a + 2];
+        double nx = uy * vz - uz * vy;
+        double ny = uz * vx - ux * vz;
+        double nz = ux * vy - uy * vx;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length == 0) {
+            return 1f;
+        }
+        double facing = Math.abs(dot(camera.getBack(), nx, ny, nz)) / length;
+        return (float) (0.35 + 0.65 * facing);
+    }
+
+    private static int[][] binTriangles(PreviewMesh mesh, float[] screenX, float[] screenY, float[] inverseDepth,
+                                        int width, int height, int tilesX, int tilesY) {
+        int[] triangles = mesh.getTriangles();
+        int triangleCount = mesh.getTriangleCount();
+        int[] counts = new int[tilesX * tilesY];
+        int[] tileRanges = new int[triangleCount * 4];
+
+        // 第一遍：计算每个三角形覆盖的图块范围并计数
+        for (int t = 0; t < triangleCount; t++) {
+            int a = triangles[t * 3], b = triangles[t * 3 + 1], c = triangles[t * 3 + 2];
+            tileRanges[t * 4] = -1;
+            if (inverseDepth[a] <= 0 || inverseDepth[b] <= 0 || inverseDepth[c] <= 0) {
+                continue;
+            }
+            float minX = Math.min(screenX[a], Math.min(screenX[b], screenX[c]));
+            float maxX = Math.max(screenX[a], Math.max(screenX[b], screenX[c]));
+            float minY = Math.min(screenY[a], Math.min(screenY[b], screenY[c]));
+            float maxY = Math.max(screenY[a], Math.max(screenY[b], screenY[c]));
+            if (maxX < 0 || maxY < 0 || minX >= width || minY >= height) {
+                continue;
+            }
+            int tx0 = Math.max(0, (int) minX / TILE_SIZE);
+            int ty0 = Math.max(0, (int) minY / TILE_SIZE);
+            int tx1 = Math.min(tilesX - 1, (int) maxX / TILE_SIZE);
+            int ty1 = Math.min(tilesY - 1, (int) maxY / TILE_SIZE);
+            tileRanges[t * 4] = tx0;
+            tileRanges[t * 4 + 1] = ty0;
+            tileRanges[t * 4 + 2] = tx1;
+            tileRanges[t * 4 + 3] = ty1;
+            for (int ty = ty0; ty <= ty1; ty++) {
+                for (int tx = tx0; tx <= tx1; tx++) {
+                    counts[ty * tilesX + tx]++;
+                }
+            }
+        }
+
+        // 第二遍：按计数分配并填充，保持三角形原始顺序
+        int[][] bins = new int[counts.length][];
+        for (int i = 0; i < counts.length; i++) {
+            bins[i] = new int[counts[i]];
+            counts[i] = 0;
+        }
+        for (int t = 0; t < triangleCount; t++) {
+            if (tileRanges[t * 4] < 0) {
+                continue;
+            }
+            for (int ty = tileRanges[t * 4 + 1]; ty <= tileRanges[t * 4 + 3]; ty++) {
+                for (int tx = tileRanges[t * 4]; tx <= tileRanges[t * 4 + 2]; tx++) {
+                    int tile = ty * tilesX + tx;
+                    bins[tile][counts[tile]++] = t;
+                }
+            }
+        }
+        return bins;
+    }
+
+    private static void rasterizeTriangle(PreviewMesh mesh, int triangle, float shade,
+                                          float[] screenX, float[] screenY, float[] inverseDepth,
+                                          int tileX0, int tileY0, int tileX1, int tileY1, int width,
+                                          int[] pixels, float[] depthBuffer) {
+        int[] triangles = mesh.getTriangles();
+        int a = triangles[triangle * 3], b = triangles[triangle * 3 + 1], c = triangles[triangle * 3 + 2];
+        float ax = screenX[a], ay = screenY[a];
+        float bx = screenX[b], by = screenY[b];
+        float cx = screenX[c], cy = screenY[c];
+        float area = (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+        if (Math.abs(area) < 1e-8f) {
+            return;
+        }
+
+        int minX = Math.max(tileX0, (int) Math.floor(Math.min(ax, Math.min(bx, cx))));
+        int maxX = Math.min(tileX1 - 1, (int) Math.ceil(Math.max(ax, Math.max(bx, cx))));
+        int minY = Math.max(tileY0, (int) Math.floor(Math.min(ay, Math.min(by, cy))));
+        int maxY = Math.min(tileY1 - 1, (int) Math.ceil(Math.max(ay, Math.max(by, cy))));
+
+        float[] uvs = mesh.getUvs();
+        PreviewMesh.PreviewMaterial material = mesh.getMaterials().get(mesh.getTriangleMaterials()[triangle]);
+        float za = inverseDepth[a], zb = inverseDepth[b], zc = inverseDepth[c];
+        // 纹理坐标预乘1/深度，插值后再除回，实现透视校正
+        float ua = uvs[a * 2] * za, va = uvs[a * 2 + 1] * za;
+        float ub = uvs[b * 2] * zb, vb = uvs[b * 2 + 1] * zb;
+        float uc = uvs[c * 2] * zc, vc = uvs[c * 2 + 1] * zc;
+        float inverseArea = 1 / area;
+
+        for (int y = minY; y <= maxY; y++) {
+            float py = y + 0.5f;
+            for (int x = minX; x <= maxX; x++) {
+                float px = x + 0.5f;
+                float wa = ((cx - bx) * (py - by) - (cy - by) * (px - bx)) * inverseArea;
+                float wb = ((ax - cx) * (py - cy) - (ay - cy) * (px - cx)) * inverseArea;
+                float wc = 1 - wa - wb;
+                if (wa < 0 || wb < 0 || wc < 0) {
+                    continue;
+                }
+                float z = wa * za + wb * zb + wc * zc;
+                int index = y * width + x;
+                if (z <= depthBuffer[index]) {
+                    continue;
+                }
+                depthBuffer[index] = z;
+                int color = material.sample((wa * ua + wb * ub + wc * uc) / z, (wa * va + wb * vb + wc * vc) / z);
+                int r = (int) (((color >> 16) & 0xFF) * shade);
+                int g = (int) (((color >> 8) & 0xFF) * shade);
+                int bl = (int) ((color & 0xFF) * shade);
+                pixels[index] = 0xFF000000 | (r << 16) | (g << 8) | bl;
+            }
+        }
+    }
+
+    private void runParallel(int count, IntConsumer action) {
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(action)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("预览渲染被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("预览渲染失败", e.getCause());
+        }
+    }
+
+    private static double dot(double[] axis, double x, double y, double z) {
+        return axis[0] * x + axis[1] * y + axis[2] * z;
+    }
+}
@@ -8,9 +8,10 @@ public interface BlenderService {
      *
      * @param shipModel 船型号，用于确定使用哪个白模型
      * @param textureDate 日期，用于确定使用哪个纹理图片
+     * @param lowPriority 是否以低进程优先级运行Blender（用于后台预生成，避免与用户请求争抢CPU）
      * @return 输出的模型文件路径
      */
-    String executeTextureMappingScript(String shipModel, String textureDate);
+    String executeTextureMappingScript(String shipModel, String textureDate, boolean lowPriority);
     
     /**
      * 执行Blender纹理贴图脚本（使用完整路径）
@@ -0,0 +1,13 @@
+package com.shipmodel.service;
+
+import com.shipmodel.dto.DiagnosticsReport;
+
+public interface DiagnosticsService {
+    /**
+     * 执行诊断检查（Blender程序、脚本、模型/纹理/输出目录、SFTP和HTTP连通性、Blender版本），
+     * 不会启动渲染任务；结果在短时间内缓存
+     *
+     * @return 诊断报告
+     */
+    DiagnosticsReport runDiagnostics();
+}
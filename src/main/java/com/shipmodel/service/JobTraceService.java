@@ -0,0 +1,36 @@
+package com.shipmodel.service;
+
+import com.shipmodel.trace.JobTrace;
+
+import java.util.List;
+
+public interface JobTraceService {
+    /**
+     * 创建任务时间线并分配关联ID
+     *
+     * @param jobType 任务类型
+     * @return 新的任务时间线
+     */
+    JobTrace start(String jobType);
+
+    /**
+     * 标记任务结束，超过慢任务阈值的任务写入慢任务日志
+     *
+     * @param trace 任务时间线
+     * @param failure 失败原因，成功时为null
+     */
+    void finish(JobTrace trace, Throwable failure);
+
+    /**
+     * 查询最近任务的时间线
+     *
+     * @param jobId 关联ID
+     * @return 任务时间线，不存在或已淘汰时返回null
+     */
+    JobTrace getTrace(String jobId);
+
+    /**
+     * @return 最近的慢任务，按结束时间倒序
+     */
+    List<JobTrace> getSlowJobs();
+}
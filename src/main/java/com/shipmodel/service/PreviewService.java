@@ -0,0 +1,14 @@
+package com.shipmodel.service;
+
+import java.util.Map;
+
+public interface PreviewService {
+    /**
+     * 为生成的GLB模型渲染PNG预览图（顶视图和侧视图），预览图保存在模型同目录下，
+     * 已存在且不早于模型文件的预览图直接复用
+     *
+     * @param modelFileName 输出目录中的GLB模型文件名
+     * @return 视图名称到预览图文件名的映射，渲染失败或未启用时为空
+     */
+    Map<String, String> generatePreviews(String modelFileName);
+}
@@ -0,0 +1,17 @@
+package com.shipmodel.service;
+
+public interface TextureIngestService {
+    /**
+     * 立即扫描一次纹理目录，为新出现的完整纹理集排队预生成任务
+     *
+     * @return 本次新排队的任务数量
+     */
+    int scanNow();
+
+    /**
+     * 获取当前排队中（尚未执行完成）的预生成任务数量
+     *
+     * @return 排队任务数量
+     */
+    int getPendingJobCount();
+}
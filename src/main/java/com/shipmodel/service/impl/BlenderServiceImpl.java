@@ -1,6 +1,14 @@
 package com.shipmodel.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shipmodel.preview.ScriptCamera;
 import com.shipmodel.service.BlenderService;
+import com.shipmodel.texture.PlyReader;
+import com.shipmodel.texture.TextureCropper;
+import com.shipmodel.texture.TextureFootprint;
+import com.shipmodel.trace.JobContext;
+import com.shipmodel.trace.JobTrace;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -19,8 +27,13 @@ import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -29,6 +42,17 @@ import java.util.stream.Collectors;
 public class BlenderServiceImpl implements BlenderService {
 
     private static final Logger log = LoggerFactory.getLogger(BlenderServiceImpl.class);
+    
+    // Blender脚本上报阶段耗时的输出行前缀，后接JSON：{"name", "start_ms", "end_ms", "detail"}
+    private static final String TRACE_SPAN_PREFIX = "TRACE_SPAN ";
+    
+    // 输出模型旁记录生成时渲染配置的文件后缀，配置一致时才复用该输出
+    private static final String RENDER_SETTINGS_SUFFIX = ".settings";
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    // 按船型和日期加锁，预生成任务与用户请求同时处理同一组输入时只渲染一次，后到的一方复用结果
+    private final Map<String, RenderLock> renderLocks = new ConcurrentHashMap<>();
 
     @Value("${blender.executable.path}")
     private String blenderExecutablePath;
@@ -48,15 +72,38 @@ public class BlenderServiceImpl implements BlenderService {
     @Value("${server.base.url:#{null}}")
     private String serverBaseUrl; // 可选配置，服务器基础URL
     
+    @Value("${texture.preprocess.enabled:false}")
+    private boolean texturePreprocessEnabled; // 是否在Blender处理前按模型投影范围裁剪纹理（需要脚本支持UV裁剪参数）
+    
+    @Value("${texture.preprocess.margin:0.02}")
+    private double texturePreprocessMargin; // 投影范围四周预留的比例
+    
+    @Value("${texture.preprocess.texel-density:256}")
+    private double texturePreprocessTexelDensity; // 每个模型单位对应的纹理像素数，<=0表示保持原始分辨率
+    
+    @Value("${texture.preprocess.max-size:4096}")
+    private int texturePreprocessMaxSize; // 预处理后纹理的最大边长
+    
+    @Value("${texture.preprocess.jpeg-quality:0.92}")
+    private float texturePreprocessJpegQuality;
+    
+    @Value("${texture.preprocess.strip-pixels:8388608}")
+    private long texturePreprocessStripPixels; // 纹理分条解码时每条的最大像素数，限制预处理的堆内存占用
+    
+    @Value("${blender.reuse-output:${texture.ingest.enabled:false}}")
+    private boolean reuseOutput; // 输入、脚本和渲染配置均未变化时复用已生成的模型，默认随纹理目录监听预生成启用
+    
     /**
      * 执行Blender纹理贴图脚本（使用简化参数）
      * 
      * @param shipModel 船型号，用于确定使用哪个白模型
      * @param textureDate 日期，用于确定使用哪个纹理图片
+     * @param lowPriority 是否以低进程优先级运行Blender
      * @return 输出的模型文件路径
      */
     @Override
-    public String executeTextureMappingScript(String shipModel, String textureDate) {
+    public String executeTextureMappingScript(String shipModel, String textureDate, boolean lowPriority) {
+        RenderLock renderLock = null;
         try {
             // 1. 检查输入文件是否存在
             File modelFile = new File(modelsBaseDir + File.separator + shipModel + ".ply");
@@ -76,6 +123,17 @@ public class BlenderServiceImpl implements BlenderService {
                 outputDir.mkdirs();
             }
             
+            // 本地输入未变化且已有生成结果时（例如由纹理目录监听预生成）直接复用
+            boolean reusable = reuseOutput && (serverBaseUrl == null || serverBaseUrl.isEmpty());
+            if (reusable) {
+                renderLock = acquireRenderLock(shipModel, textureDate);
+                String existingOutput = findReusableOutput(shipModel, textureDate, modelFile, topTextureFile, sideTextureFile);
+                if (existingOutput != null) {
+                    log.info("复用已生成的模型文件: {}", existingOutput);
+                    return existingOutput;
+                }
+            }
+            
             // 1. 创建临时修改版本的Blender脚本
             String modifiedScriptPath = createModifiedScript(shipModel, textureDate);
             
@@ -107,8 +165,16 @@ public class BlenderServiceImpl implements BlenderService {
                 sideTexturePath = texturesBaseDir + File.separator + textureDate + File.separator + "side.jpg";
             }
             
-            // 3. 执行Blender命令
-            executeBlenderCommand(modifiedScriptPath, modelPath, topTexturePath, sideTexturePath, outputFilePath);
+            // 3. 预处理纹理并执行Blender命令
+            PreparedTextures textures = prepareTextures(modelPath, topTexturePath, sideTexturePath);
+            try {
+                executeBlenderCommand(modifiedScriptPath, modelPath, textures, outputFilePath, lowPriority);
+            } finally {
+                textures.cleanup();
+            }
+            if (reusable) {
+                writeRenderSettings(outputFilePath);
+            }
             
             // 返回生成的模型文件路径
             return outputFileName;
@@ -117,6 +183,8 @@ public class BlenderServiceImpl implements BlenderService {
             // 记录错误并转换为运行时异常
             log.error("执行Blender脚本时发生错误", e);
             throw new RuntimeException("纹理贴图处理失败", e);
+        } finally {
+            releaseRenderLock(renderLock);
         }
     }
     
@@ -129,6 +197,7 @@ public class BlenderServiceImpl implements BlenderService {
      */
     @Override
     public String executeTextureMappingWithPaths(String modelPath, List<String> texturePaths) {
+        RenderLock renderLock = null;
         try {
             // 记录处理请求信息
             log.info("使用完整路径执行纹理贴图: 模型={}, 纹理={}", modelPath, texturePaths);
@@ -152,6 +221,24 @@ public class BlenderServiceImpl implements BlenderService {
                 outputDir.mkdirs();
             }
             
+            // 输入正是本地模型/纹理目录中的文件时，复用已生成的结果（例如由纹理目录监听预生成）
+            File modelFile = new File(modelsBaseDir + File.separator + extractedModelName + ".ply");
+            File topTextureFile = new File(texturesBaseDir + File.separator + extractedTextureDate + File.separator + "top.jpg");
+            File sideTextureFile = new File(texturesBaseDir + File.separator + extractedTextureDate + File.separator + "side.jpg");
+            boolean reusable = reuseOutput && !modelsBaseDir.isEmpty() && !texturesBaseDir.isEmpty()
+                    && isSameFile(modelPath, modelFile)
+                    && isSameFile(texturePaths.get(0), topTextureFile)
+                    && isSameFile(texturePaths.get(1), sideTextureFile);
+            if (reusable) {
+                renderLock = acquireRenderLock(extractedModelName, extractedTextureDate);
+                String existingOutput = findReusableOutput(extractedModelName, extractedTextureDate,
+                        modelFile, topTextureFile, sideTextureFile);
+                if (existingOutput != null) {
+                    log.info("复用已生成的模型文件: {}", existingOutput);
+                    return existingOutput;
+                }
+            }
+            
             // 1. 创建临时修改版本的Blender脚本
             String modifiedScriptPath = createModifiedScript(extractedModelName, extractedTextureDate);
             
@@ -174,8 +261,16 @@ public class BlenderServiceImpl implements BlenderService {
             log.info("顶视图路径: {}", topTexturePath);
             log.info("侧视图路径: {}", sideTexturePath);
             
-            // 3. 执行Blender命令
-            executeBlenderCommand(modifiedScriptPath, fullModelPath, topTexturePath, sideTexturePath, outputFilePath);
+            // 3. 预处理纹理并执行Blender命令
+            PreparedTextures textures = prepareTextures(fullModelPath, topTexturePath, sideTexturePath);
+            try {
+                executeBlenderCommand(modifiedScriptPath, fullModelPath, textures, outputFilePath, false);
+            } finally {
+                textures.cleanup();
+            }
+            if (reusable) {
+                writeRenderSettings(outputFilePath);
+            }
             
             // 返回生成的模型文件路径
             return outputFileName;
@@ -184,6 +279,8 @@ public class BlenderServiceImpl implements BlenderService {
             // 记录错误并转换为运行时异常
             log.error("使用完整路径执行Blender脚本时发生错误", e);
             throw new RuntimeException("纹理贴图处理失败", e);
+        } finally {
+            releaseRenderLock(renderLock);
         }
     }
     
@@ -192,13 +289,13 @@ public class BlenderServiceImpl implements BlenderService {
      * 
      * @param scriptPath Blender脚本路径
      * @param modelPath 模型路径
-     * @param topTexturePath 顶视图纹理路径
-     * @param sideTexturePath 侧视图纹理路径
+     * @param textures 预处理后的纹理参数
      * @param outputFilePath 输出文件路径
+     * @param lowPriority 是否以低进程优先级运行（Linux/macOS使用nice，Windows使用start /low）
      * @throws Exception 执行过程中可能的异常
      */
-    private void executeBlenderCommand(String scriptPath, String modelPath, String topTexturePath, 
-                                      String sideTexturePath, String outputFilePath) throws Exception {
+    private void executeBlenderCommand(String scriptPath, String modelPath, PreparedTextures textures, 
+                                      String outputFilePath, boolean lowPriority) throws Exception {
             // 创建进程构建器，设置命令行参数
             ProcessBuilder processBuilder = new ProcessBuilder(
                 blenderExecutablePath,  // Blender程序路径
@@ -206,11 +303,33 @@ public class BlenderServiceImpl implements BlenderService {
             "--python", scriptPath, // 指定Python脚本
             "--", // 传递参数给Python脚本
             modelPath, // 模型路径
-            topTexturePath, // 顶视图纹理
-            sideTexturePath, // 侧视图纹理
+            textures.topTexturePath, // 顶视图纹理
+            textures.sideTexturePath, // 侧视图纹理
             outputFilePath // 输出文件路径
             );
             
+            // 纹理经过裁剪时，追加顶视图和侧视图的UV裁剪范围
+            if (textures.topUvCrop != null) {
+                processBuilder.command().add(textures.topUvCrop);
+                processBuilder.command().add(textures.sideUvCrop);
+            }
+            
+            // 传递任务关联ID，脚本日志和上报的阶段耗时使用同一ID
+            JobTrace trace = JobContext.current();
+            if (trace != null) {
+                processBuilder.command().add("--job-id=" + trace.getJobId());
+            }
+            
+            // 低优先级运行：Java线程优先级对子进程无效，需要在启动时降低进程优先级
+            if (lowPriority) {
+                if (System.getProperty("os.name").toLowerCase().startsWith("windows")) {
+                    // start /wait 等待Blender结束并返回其退出码，/b 不新建窗口、共享标准输出
+                    processBuilder.command().addAll(0, Arrays.asList("cmd", "/c", "start", "\"\"", "/low", "/b", "/wait"));
+                } else {
+                    processBuilder.command().addAll(0, Arrays.asList("nice", "-n", "19"));
+                }
+            }
+            
             // 设置工作目录为当前目录
             processBuilder.directory(new File(System.getProperty("user.dir")));
             
@@ -221,12 +340,18 @@ public class BlenderServiceImpl implements BlenderService {
             log.info("执行Blender命令: {}", processBuilder.command());
             
             // 启动进程
+            long processStart = System.currentTimeMillis();
+            long scriptStart = Long.MAX_VALUE; // 脚本上报的最早阶段开始时间，用于计算进程启动耗时
             Process process = processBuilder.start();
             
-            // 读取进程输出并记录到日志
+            // 读取进程输出并记录到日志，阶段耗时行记录到任务时间线
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
+                    if (line.startsWith(TRACE_SPAN_PREFIX)) {
+                        scriptStart = Math.min(scriptStart, recordScriptSpan(trace, line.substring(TRACE_SPAN_PREFIX.length())));
+                        continue;
+                    }
                     log.info("Blender输出: {}", line);
                 }
             }
@@ -234,6 +359,9 @@ public class BlenderServiceImpl implements BlenderService {
             // 等待进程完成并获取退出码
             int exitCode = process.waitFor();
             log.info("Blender进程退出，状态码: {}", exitCode);
+            if (trace != null && scriptStart != Long.MAX_VALUE) {
+                trace.addSpan("process_spawn", "java", processStart, scriptStart, null);
+            }
             
             // 检查退出码，非零表示执行失败
             if (exitCode != 0) {
@@ -254,6 +382,134 @@ public class BlenderServiceImpl implements BlenderService {
         log.info("成功生成模型文件: {}，文件大小: {} 字节", outputFilePath, outputFile.length());
     }
     
+    /**
+     * 将Blender脚本上报的阶段记录到任务时间线
+     * 
+     * @param trace 任务时间线，为null时只解析不记录
+     * @param json 阶段JSON
+     * @return 阶段开始时间（毫秒时间戳），解析失败时返回Long.MAX_VALUE
+     */
+    private long recordScriptSpan(JobTrace trace, String json) {
+        try {
+            JsonNode span = objectMapper.readTree(json);
+            long start = span.path("start_ms").asLong();
+            long end = span.path("end_ms").asLong();
+            String name = span.path("name").asText();
+            String detail = span.hasNonNull("detail") ? span.get("detail").asText() : null;
+            log.debug("Blender阶段: {} 耗时 {} ms{}", name, end - start, detail != null ? " (" + detail + ")" : "");
+            if (trace != null) {
+                trace.addSpan(name, "blender", start, end, detail);
+            }
+            return start;
+        } catch (Exception e) {
+            log.warn("无法解析Blender阶段耗时: {}", json);
+            return Long.MAX_VALUE;
+        }
+    }
+    
+    /**
+     * 纹理预处理：按模型在各相机下的投影范围裁剪纹理并重采样到配置的纹理密度，
+     * 减小Blender的内存占用和输出GLB的体积。只处理本地文件，未启用或失败时使用原始纹理。
+     * 
+     * @param modelPath 模型路径
+     * @param topTexturePath 顶视图纹理路径
+     * @param sideTexturePath 侧视图纹理路径
+     * @return 传给Blender的纹理参数
+     */
+    private PreparedTextures prepareTextures(String modelPath, String topTexturePath, String sideTexturePath) {
+        PreparedTextures textures = new PreparedTextures(topTexturePath, sideTexturePath);
+        if (!texturePreprocessEnabled) {
+            return textures;
+        }
+        if (!new File(modelPath).isFile() || !new File(topTexturePath).isFile() || !new File(sideTexturePath).isFile()) {
+            log.debug("输入不是本地文件，跳过纹理预处理");
+            return textures;
+        }
+        
+        try {
+            long start = System.currentTimeMillis();
+            float[] vertices = PlyReader.readVertices(Paths.get(modelPath));
+            TextureCropper cropper = new TextureCropper(texturePreprocessMargin, texturePreprocessTexelDensity,
+                    texturePreprocessMaxSize, texturePreprocessJpegQuality, texturePreprocessStripPixels);
+            String[] sources = {topTexturePath, sideTexturePath};
+            ScriptCamera[] cameras = {ScriptCamera.TOP, ScriptCamera.SIDE};
+            String[] preparedPaths = new String[2];
+            String[] uvCrops = new String[2];
+            for (int i = 0; i < cameras.length; i++) {
+                preparedPaths[i] = sources[i];
+                uvCrops[i] = "0,0,1,1";
+                TextureFootprint footprint = TextureFootprint.compute(vertices, cameras[i]);
+                if (footprint == null) {
+                    continue;
+                }
+                Path target = Paths.get(System.getProperty("java.io.tmpdir"),
+                        "blender_texture_" + UUID.randomUUID() + "_" + cameras[i].getViewName() + ".jpg");
+                TextureCropper.CropResult result = cropper.crop(Paths.get(sources[i]), target, footprint);
+                if (result == null) {
+                    continue;
+                }
+                textures.tempFiles.add(target);
+                preparedPaths[i] = target.toString();
+                uvCrops[i] = result.toScriptArgument();
+                log.info("纹理预处理: {} -> {} ({}x{}), UV范围={}", sources[i], target,
+                        result.getWidth(), result.getHeight(), uvCrops[i]);
+            }
+            if (!textures.tempFiles.isEmpty()) {
+                textures.topTexturePath = preparedPaths[0];
+                textures.sideTexturePath = preparedPaths[1];
+                textures.topUvCrop = uvCrops[0];
+                textures.sideUvCrop = uvCrops[1];
+            }
+            log.info("纹理预处理完成，耗时 {} ms", System.currentTimeMillis() - start);
+            JobContext.recordSpan("texture_preprocess", start, System.currentTimeMillis());
+        } catch (Exception e) {
+            log.warn("纹理预处理失败，使用原始纹理: {}", e.getMessage(), e);
+            textures.cleanup();
+            textures = new PreparedTextures(topTexturePath, sideTexturePath);
+        }
+        return textures;
+    }
+    
+    /**
+     * 传给Blender的纹理参数，以及预处理产生的临时文件
+     */
+    private static class PreparedTextures {
+        private String topTexturePath;
+        private String sideTexturePath;
+        private String topUvCrop; // 为null表示未裁剪，不追加UV裁剪参数
+        private String sideUvCrop;
+        private final List<Path> tempFiles = new ArrayList<>();
+        
+        PreparedTextures(String topTexturePath, String sideTexturePath) {
+            this.topTexturePath = topTexturePath;
+            this.sideTexturePath = sideTexturePath;
+        }
+        
+        void cleanup() {
+            for (Path tempFile : tempFiles) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (Exception e) {
+                    log.warn("清理临时纹理文件失败: {}", tempFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按船型和日期区分的渲染锁。使用ReentrantLock而不是监视器锁，virtual模式下等待时不固定载体线程；
+     * holders只在renderLocks.compute中修改，为0时移除，表中只保留正在处理的组合
+     */
+    private static class RenderLock {
+        private final String key;
+        private final ReentrantLock lock = new ReentrantLock();
+        private int holders;
+
+        RenderLock(String key) {
+            this.key = key;
+        }
+    }
+
     /**
      * 从模型路径中提取模型名称
      * 
@@ -329,6 +585,119 @@ public class BlenderServiceImpl implements BlenderService {
         return tempScriptPath;
     }
     
+    /**
+     * 判断请求中的路径是否指向指定的本地文件（URL和SFTP路径不视为本地文件）
+     * 
+     * @param path 请求中的路径
+     * @param file 本地文件
+     * @return 是否为同一文件
+     */
+    private boolean isSameFile(String path, File file) {
+        if (path == null || path.startsWith("http://") || path.startsWith("https://")) {
+            return false;
+        }
+        try {
+            return Paths.get(path).toAbsolutePath().normalize()
+                    .equals(file.toPath().toAbsolutePath().normalize());
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    /**
+     * 查找可复用的输出文件：文件名匹配船型和日期，比所有输入文件和Blender脚本都新，
+     * 且生成时记录的渲染配置与当前配置一致（没有记录的旧输出不复用）
+     * 
+     * @param shipModel 船型号
+     * @param textureDate 纹理日期
+     * @param inputFiles 输入文件（模型和纹理）
+     * @return 可复用的输出文件名，不存在时返回null
+     */
+    private String findReusableOutput(String shipModel, String textureDate, File... inputFiles) {
+        long latestInput = new File(blenderScriptPath).lastModified();
+        for (File inputFile : inputFiles) {
+            if (!inputFile.exists()) {
+                return null;
+            }
+            latestInput = Math.max(latestInput, inputFile.lastModified());
+        }
+        String settings = renderSettings();
+        
+        // 文件名中的时间戳可按字典序排序，取最新的一个
+        String prefix = shipModel + "_" + textureDate + "_";
+        File[] candidates = new File(outputModelsDir).listFiles(
+                file -> file.getName().startsWith(prefix) && file.getName().endsWith(".glb"));
+        if (candidates == null) {
+            return null;
+        }
+        File latest = null;
+        for (File candidate : candidates) {
+            if (candidate.length() > 0 && candidate.lastModified() >= latestInput
+                    && (latest == null || candidate.getName().compareTo(latest.getName()) > 0)
+                    && settings.equals(readRenderSettings(candidate))) {
+                latest = candidate;
+            }
+        }
+        return latest != null ? latest.getName() : null;
+    }
+    
+    /**
+     * 影响输出内容的渲染配置（分条解码大小只影响内存占用，不计入）
+     */
+    private String renderSettings() {
+        if (!texturePreprocessEnabled) {
+            return "preprocess=false";
+        }
+        return "preprocess=true"
+                + ",margin=" + texturePreprocessMargin
+                + ",texel-density=" + texturePreprocessTexelDensity
+                + ",max-size=" + texturePreprocessMaxSize
+                + ",jpeg-quality=" + texturePreprocessJpegQuality;
+    }
+    
+    private void writeRenderSettings(String outputFilePath) {
+        try {
+            Files.write(Paths.get(outputFilePath + RENDER_SETTINGS_SUFFIX), renderSettings().getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            // 没有记录时该输出只是不会被复用
+            log.warn("记录渲染配置失败: {}", e.getMessage());
+        }
+    }
+    
+    private String readRenderSettings(File outputFile) {
+        Path settingsFile = Paths.get(outputFile.getPath() + RENDER_SETTINGS_SUFFIX);
+        try {
+            return Files.isRegularFile(settingsFile) ? new String(Files.readAllBytes(settingsFile), StandardCharsets.UTF_8) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    /**
+     * 获取船型和日期对应的渲染锁，同一组输入的复用检查和渲染串行执行
+     */
+    private RenderLock acquireRenderLock(String shipModel, String textureDate) {
+        String key = shipModel + "_" + textureDate;
+        RenderLock renderLock = renderLocks.compute(key, (k, existing) -> {
+            RenderLock lock = existing != null ? existing : new RenderLock(k);
+            lock.holders++;
+            return lock;
+        });
+        renderLock.lock.lock();
+        return renderLock;
+    }
+    
+    /**
+     * 释放渲染锁，没有其他线程持有或等待时从表中移除
+     */
+    private void releaseRenderLock(RenderLock renderLock) {
+        if (renderLock == null) {
+            return;
+        }
+        renderLock.lock.unlock();
+        renderLocks.computeIfPresent(renderLock.key, (k, lock) -> --lock.holders == 0 ? null : lock);
+    }
+    
     /**
      * 生成输出文件名
      * 
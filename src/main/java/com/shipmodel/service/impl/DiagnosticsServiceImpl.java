@@ -0,0 +1,352 @@
+package com.shipmodel.service.impl;
+
+import com.shipmodel.dto.DiagnosticCheck;
+import com.shipmodel.dto.DiagnosticsReport;
+import com.shipmodel.service.DiagnosticsService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 诊断服务：检查运行贴图任务所需的程序、目录和外部服务，不启动任何渲染任务。
+ * 整体结果缓存diagnostics.cache-ttl-ms，Blender版本信息单独缓存更长时间（仅缓存正常结果）。
+ * 每项检查都有超时，任何检查卡住都不会让接口一直阻塞。
+ */
+@Service
+public class DiagnosticsServiceImpl implements DiagnosticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(DiagnosticsServiceImpl.class);
+
+    private static final String UP = "UP";
+    private static final String DOWN = "DOWN";
+    private static final String SKIPPED = "SKIPPED";
+
+    @Value("${blender.executable.path}")
+    private String blenderExecutablePath;
+
+    @Value("${blender.script.path}")
+    private String blenderScriptPath;
+
+    @Value("${models.base.dir:}")
+    private String modelsBaseDir;
+
+    @Value("${textures.base.dir:}")
+    private String texturesBaseDir;
+
+    @Value("${output.models.dir}")
+    private String outputModelsDir;
+
+    @Value("${server.base.url:#{null}}")
+    private String serverBaseUrl;
+
+    @Value("${sftp.enabled:false}")
+    private boolean sftpEnabled; // SFTP图片服务器是可选依赖，显式启用后才检查
+
+    @Value("${sftp.host:}")
+    private String sftpHost;
+
+    @Value("${sftp.port:5000}")
+    private int sftpPort;
+
+    @Value("${diagnostics.cache-ttl-ms:10000}")
+    private long cacheTtlMs; // 诊断结果缓存时间
+
+    @Value("${diagnostics.connect-timeout-ms:2000}")
+    private int connectTimeoutMs; // SFTP、HTTP连通性检查超时
+
+    @Value("${diagnostics.blender-version.enabled:true}")
+    private boolean blenderVersionEnabled;
+
+    @Value("${diagnostics.blender-version.ttl-ms:600000}")
+    private long blenderVersionTtlMs; // Blender版本信息缓存时间
+
+    @Value("${diagnostics.blender-version.timeout-ms:10000}")
+    private long blenderVersionTimeoutMs;
+
+    @Value("${diagnostics.check-timeout-ms:12000}")
+    private long checkTimeoutMs; // 整体检查超时，超时未完成的检查项记为DOWN
+
+    // 各检查项并行执行，总耗时取决于最慢的一项；卡住的检查（例如挂起的网络挂载）不会占满线程池
+    private final ExecutorService checkExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "diagnostics-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 正在执行的检查，并发请求等待同一个结果，不持有监视器锁（virtual模式下不会固定载体线程）
+    private final AtomicReference<CompletableFuture<DiagnosticsReport>> inFlight = new AtomicReference<>();
+
+    private volatile DiagnosticsReport cachedReport;
+    private volatile String cachedBlenderVersion;
+    private volatile long blenderVersionCheckedAt;
+
+    @PreDestroy
+    public void shutdown() {
+        checkExecutor.shutdownNow();
+    }
+
+    /**
+     * 同一时间只执行一次检查，并发请求等待同一次检查的结果
+     */
+    @Override
+    public DiagnosticsReport runDiagnostics() {
+        while (true) {
+            DiagnosticsReport cached = cachedReport;
+            if (cached != null && System.currentTimeMillis() - cached.getCheckedAt() < cacheTtlMs) {
+                return copyAsCached(cached);
+            }
+            CompletableFuture<DiagnosticsReport> running = inFlight.get();
+            if (running != null) {
+                return copyAsCached(awaitReport(running));
+            }
+            CompletableFuture<DiagnosticsReport> refresh = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, refresh)) {
+                try {
+                    DiagnosticsReport report = collectReport();
+                    cachedReport = report;
+                    refresh.complete(report);
+                    return report;
+                } catch (RuntimeException e) {
+                    refresh.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    inFlight.set(null);
+                }
+            }
+        }
+    }
+
+    private DiagnosticsReport awaitReport(CompletableFuture<DiagnosticsReport> running) {
+        try {
+            // 执行检查的请求自身受checkTimeoutMs约束，这里多等一秒
+            return running.get(checkTimeoutMs + 1000, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待诊断检查被中断", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("等待诊断检查失败", e);
+        }
+    }
+
+    private static DiagnosticsReport copyAsCached(DiagnosticsReport source) {
+        DiagnosticsReport report = new DiagnosticsReport();
+        report.setSuccess(source.isSuccess());
+        report.setCheckedAt(source.getCheckedAt());
+        report.setTotalLatencyMs(source.getTotalLatencyMs());
+        report.setChecks(source.getChecks());
+        report.setCached(true);
+        return report;
+    }
+
+    private DiagnosticsReport collectReport() {
+        long start = System.currentTimeMillis();
+        Map<String, CompletableFuture<DiagnosticCheck>> futures = new LinkedHashMap<>();
+        futures.put("blenderExecutable", runCheck("blenderExecutable", this::checkBlenderExecutable));
+        futures.put("blenderScript", runCheck("blenderScript", () -> checkReadableFile(blenderScriptPath)));
+        futures.put("modelsDir", runCheck("modelsDir", () -> checkDirectory(modelsBaseDir, false)));
+        futures.put("texturesDir", runCheck("texturesDir", () -> checkDirectory(texturesBaseDir, false)));
+        futures.put("outputDir", runCheck("outputDir", () -> checkDirectory(outputModelsDir, true)));
+        futures.put("sftp", runCheck("sftp", this::checkSftp));
+        futures.put("httpServer", runCheck("httpServer", this::checkHttpServer));
+        futures.put("blenderVersion", runCheck("blenderVersion", this::checkBlenderVersion));
+
+        long deadline = start + checkTimeoutMs;
+        List<DiagnosticCheck> checks = new ArrayList<>();
+        boolean success = true;
+        for (Map.Entry<String, CompletableFuture<DiagnosticCheck>> entry : futures.entrySet()) {
+            DiagnosticCheck check;
+            try {
+                check = entry.getValue().get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                check = new DiagnosticCheck(entry.getKey(), DOWN, System.currentTimeMillis() - start,
+                        "检查超时（" + checkTimeoutMs + " ms）");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("诊断检查被中断", e);
+            } catch (ExecutionException e) {
+                check = new DiagnosticCheck(entry.getKey(), DOWN, System.currentTimeMillis() - start,
+                        String.valueOf(e.getCause()));
+            }
+            checks.add(check);
+            success &= !DOWN.equals(check.getStatus());
+        }
+
+        DiagnosticsReport report = new DiagnosticsReport();
+        report.setSuccess(success);
+        report.setCheckedAt(System.currentTimeMillis());
+        report.setTotalLatencyMs(report.getCheckedAt() - start);
+        report.setChecks(checks);
+        report.setCached(false);
+        log.info("诊断检查完成: 结果={}, 耗时 {} ms", success ? UP : DOWN, report.getTotalLatencyMs());
+        return report;
+    }
+
+    /**
+     * 执行单项检查并记录耗时，检查返回的字符串以"!"开头表示异常，为null表示跳过
+     */
+    private CompletableFuture<DiagnosticCheck> runCheck(String name, Callable<String> check) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.currentTimeMillis();
+            String status;
+            String detail;
+            try {
+                detail = check.call();
+                if (detail == null) {
+                    status = SKIPPED;
+                    detail = "未配置或未启用";
+                } else if (detail.startsWith("!")) {
+                    status = DOWN;
+                    detail = detail.substring(1);
+                } else {
+                    status = UP;
+                }
+            } catch (Exception e) {
+                status = DOWN;
+                detail = e.getClass().getSimpleName() + ": " + e.getMessage();
+            }
+            return new DiagnosticCheck(name, status, System.currentTimeMillis() - start, detail);
+        }, checkExecutor);
+    }
+
+    private String checkBlenderExecutable() {
+        File executable = new File(blenderExecutablePath);
+        if (!executable.isFile()) {
+            return "!文件不存在: " + executable.getAbsolutePath();
+        }
+        if (!executable.canExecute()) {
+            return "!没有执行权限: " + executable.getAbsolutePath();
+        }
+        return executable.getAbsolutePath();
+    }
+
+    private String checkReadableFile(String path) {
+        File file = new File(path);
+        if (!file.isFile()) {
+            return "!文件不存在: " + file.getAbsolutePath();
+        }
+        if (!file.canRead()) {
+            return "!没有读取权限: " + file.getAbsolutePath();
+        }
+        return file.getAbsolutePath();
+    }
+
+    private String checkDirectory(String path, boolean requireWritable) throws Exception {
+        if (path == null || path.isEmpty()) {
+            return null;
+        }
+        Path directory = Paths.get(path);
+        if (!Files.isDirectory(directory)) {
+            return "!目录不存在: " + directory.toAbsolutePath();
+        }
+        if (requireWritable) {
+            // 实际写入并删除一个临时文件，比检查权限位更可靠（网络挂载、只读文件系统）
+            Path probe = Files.createTempFile(directory, ".diagnostics", ".tmp");
+            Files.delete(probe);
+        }
+        return directory.toAbsolutePath().toString();
+    }
+
+    /**
+     * 连接SFTP端口并读取SSH标识行，不进行登录；未启用或未配置地址时跳过
+     */
+    private String checkSftp() throws Exception {
+        if (!sftpEnabled || sftpHost == null || sftpHost.isEmpty()) {
+            return null;
+        }
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(sftpHost, sftpPort), connectTimeoutMs);
+            socket.setSoTimeout(connectTimeoutMs);
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String banner = reader.readLine();
+            if (banner == null || !banner.startsWith("SSH-")) {
+                return "!" + sftpHost + ":" + sftpPort + " 返回的不是SSH标识: " + banner;
+            }
+            return sftpHost + ":" + sftpPort + " " + banner;
+        }
+    }
+
+    private String checkHttpServer() throws Exception {
+        if (serverBaseUrl == null || serverBaseUrl.isEmpty()) {
+            return null;
+        }
+        HttpURLConnection connection = (HttpURLConnection) new URL(serverBaseUrl).openConnection();
+        try {
+            connection.setRequestMethod("HEAD");
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.setReadTimeout(connectTimeoutMs);
+            int code = connection.getResponseCode();
+            String detail = serverBaseUrl + " HTTP " + code;
+            return code >= 500 ? "!" + detail : detail;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * 执行 blender --version 获取版本信息（只启动程序打印版本，不加载场景）。
+     * 输出重定向到临时文件，超时后强制结束进程；只缓存正常结果，失败时下次检查会重新执行
+     */
+    private String checkBlenderVersion() throws Exception {
+        if (!blenderVersionEnabled) {
+            return null;
+        }
+        String cached = cachedBlenderVersion;
+        if (cached != null && System.currentTimeMillis() - blenderVersionCheckedAt < blenderVersionTtlMs) {
+            return cached;
+        }
+
+        Path output = Files.createTempFile("blender_version_", ".txt");
+        try {
+            Process process = new ProcessBuilder(blenderExecutablePath, "--version")
+                    .redirectErrorStream(true)
+                    .redirectOutput(output.toFile())
+                    .start();
+            if (!process.waitFor(blenderVersionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                return "!执行超时（" + blenderVersionTimeoutMs + " ms）";
+            }
+            String version = null;
+            for (String line : new String(Files.readAllBytes(output), StandardCharsets.UTF_8).split("\\R")) {
+                if (!line.trim().isEmpty()) {
+                    version = line.trim();
+                    break;
+                }
+            }
+            if (process.exitValue() != 0 || version == null) {
+                return "!退出码: " + process.exitValue();
+            }
+            cachedBlenderVersion = version;
+            blenderVersionCheckedAt = System.currentTimeMillis();
+            return version;
+        } finally {
+            Files.deleteIfExists(output);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.shipmodel.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shipmodel.service.JobTraceService;
+import com.shipmodel.trace.JobTrace;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 任务时间线服务：在内存中保留最近 trace.max-jobs 个任务的时间线供按关联ID查询，
+ * 耗时超过 trace.slow-job.threshold-ms 的任务额外保留在慢任务列表中，并以JSON行写入滚动的慢任务日志文件
+ */
+@Service
+public class JobTraceServiceImpl implements JobTraceService {
+
+    private static final Logger log = LoggerFactory.getLogger(JobTraceServiceImpl.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Value("${trace.max-jobs:200}")
+    private int maxJobs; // 内存中保留的任务时间线数量
+
+    @Value("${trace.slow-job.threshold-ms:60000}")
+    private long slowJobThresholdMs; // 慢任务阈值
+
+    @Value("${trace.slow-job.history:50}")
+    private int slowJobHistory; // 内存中保留的慢任务数量
+
+    @Value("${trace.slow-job.file:}")
+    private String slowJobFile; // 慢任务日志文件，为空时只输出到应用日志
+
+    @Value("${trace.slow-job.max-file-size-mb:10}")
+    private long slowJobMaxFileSizeMb; // 慢任务日志超过该大小时滚动为 .1 文件
+
+    private final Map<String, JobTrace> recentJobs = new LinkedHashMap<String, JobTrace>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, JobTrace> eldest) {
+            return size() > maxJobs;
+        }
+    };
+
+    private final Deque<JobTrace> slowJobs = new ArrayDeque<>();
+
+    @Override
+    public JobTrace start(String jobType) {
+        String jobId = UUID.randomUUID().toString().replace("-", "").substring(0, 12);
+        JobTrace trace = new JobTrace(jobId, jobType, System.currentTimeMillis());
+        synchronized (recentJobs) {
+            recentJobs.put(jobId, trace);
+        }
+        return trace;
+    }
+
+    @Override
+    public void finish(JobTrace trace, Throwable failure) {
+        trace.finish(failure);
+        log.info("任务结束: jobId={}, 状态={}, 耗时 {} ms, 最慢阶段={}",
+                trace.getJobId(), trace.getStatus(), trace.getDurationMs(), trace.getSlowestSpan());
+        if (trace.getDurationMs() < slowJobThresholdMs) {
+            return;
+        }
+
+        synchronized (slowJobs) {
+            slowJobs.addFirst(trace);
+            while (slowJobs.size() > slowJobHistory) {
+                slowJobs.removeLast();
+            }
+        }
+        try {
+            String json = objectMapper.writeValueAsString(trace);
+            log.warn("慢任务（超过 {} ms）: {}", slowJobThresholdMs, json);
+            if (slowJobFile != null && !slowJobFile.isEmpty()) {
+                appendSlowJobLog(json);
+            }
+        } catch (Exception e) {
+            log.warn("写入慢任务日志失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public JobTrace getTrace(String jobId) {
+        synchronized (recentJobs) {
+            return recentJobs.get(jobId);
+        }
+    }
+
+    @Override
+    public List<JobTrace> getSlowJobs() {
+        synchronized (slowJobs) {
+            return new ArrayList<>(slowJobs);
+        }
+    }
+
+    /**
+     * 以JSON行追加到慢任务日志，超过大小上限时先将当前文件滚动为 .1
+     */
+    private synchronized void appendSlowJobLog(String json) throws Exception {
+        Path file = Paths.get(slowJobFile);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        if (Files.exists(file) && Files.size(file) >= slowJobMaxFileSizeMb * 1024 * 1024) {
+            Files.move(file, Paths.get(slowJobFile + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.write(file, (json + System.lineSeparator()).getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,128 @@
+package com.shipmodel.service.impl;
+
+import com.shipmodel.preview.GlbReader;
+import com.shipmodel.preview.PreviewCamera;
+import com.shipmodel.preview.PreviewMesh;
+import com.shipmodel.preview.ScriptCamera;
+import com.shipmodel.preview.SoftwareRasterizer;
+import com.shipmodel.service.PreviewService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 预览图服务：使用纯Java软件光栅化器渲染生成的GLB模型，前端列表页无需下载完整模型
+ */
+@Service
+public class PreviewServiceImpl implements PreviewService {
+
+    private static final Logger log = LoggerFactory.getLogger(PreviewServiceImpl.class);
+
+    @Value("${output.models.dir}")
+    private String outputModelsDir;
+
+    @Value("${preview.enabled:true}")
+    private boolean previewEnabled;
+
+    @Value("${preview.size:512}")
+    private int previewSize; // 预览图边长（像素）
+
+    @Value("${preview.max-texture-size:2048}")
+    private int maxTextureSize; // 纹理解码最大边长，超过时降采样
+
+    @Value("${preview.fit-to-model:true}")
+    private boolean fitToModel; // 是否保持相机朝向并自动调整距离使模型完整入画
+
+    @Value("${preview.parallelism:0}")
+    private int parallelism; // 渲染线程数，0表示使用CPU核数
+
+    private ForkJoinPool renderPool;
+    private SoftwareRasterizer rasterizer;
+
+    @PostConstruct
+    public void init() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        renderPool = new ForkJoinPool(threads);
+        rasterizer = new SoftwareRasterizer(renderPool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        renderPool.shutdownNow();
+    }
+
+    @Override
+    public Map<String, String> generatePreviews(String modelFileName) {
+        if (!previewEnabled) {
+            return Collections.emptyMap();
+        }
+        try {
+            Path modelPath = Paths.get(outputModelsDir, modelFileName);
+            long modelModified = Files.getLastModifiedTime(modelPath).toMillis();
+            String baseName = modelFileName.substring(0, modelFileName.lastIndexOf('.'));
+
+            Map<String, String> previews = new LinkedHashMap<>();
+            PreviewMesh mesh = null;
+            long start = System.currentTimeMillis();
+            // 预览视角与Blender脚本中camera_configs的相机位姿及模型旋转一致
+            for (ScriptCamera view : ScriptCamera.values()) {
+                String previewFileName = baseName + "_" + view.getViewName() + ".png";
+                Path previewPath = Paths.get(outputModelsDir, previewFileName);
+
+                // 预览图已存在且不早于模型时直接复用
+                if (Files.exists(previewPath) && Files.getLastModifiedTime(previewPath).toMillis() >= modelModified) {
+                    previews.put(view.getViewName(), previewFileName);
+                    continue;
+                }
+
+                if (mesh == null) {
+                    mesh = GlbReader.read(modelPath, maxTextureSize);
+                    log.debug("预览网格加载完成: {}，顶点数={}，三角形数={}",
+                            modelFileName, mesh.getVertexCount(), mesh.getTriangleCount());
+                }
+                // 脚本投影时先将模型旋转到相机对应角度（例如侧视图绕Y轴旋转90度），预览同样旋转，
+                // 保证预览图展示的是贴上该视角纹理的那一面
+                PreviewMesh viewMesh = mesh.rotated(view.getModelRotation());
+                PreviewCamera camera = view.toPreviewCamera();
+                if (fitToModel) {
+                    camera = camera.fitTo(viewMesh);
+                }
+                BufferedImage image = rasterizer.render(viewMesh, camera, previewSize, previewSize);
+
+                // 先写临时文件再原子替换，避免并发请求读到不完整的图片
+                File tempFile = File.createTempFile(previewFileName, ".tmp", new File(outputModelsDir));
+                try {
+                    ImageIO.write(image, "png", tempFile);
+                    Files.move(tempFile.toPath(), previewPath, StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(tempFile.toPath());
+                }
+                previews.put(view.getViewName(), previewFileName);
+            }
+            if (mesh != null) {
+                log.info("预览图渲染完成: {}，耗时 {} ms", modelFileName, System.currentTimeMillis() - start);
+            }
+            return previews;
+        } catch (Exception e) {
+            // 预览图只是辅助信息，渲染失败不影响贴图结果
+            log.warn("预览图渲染失败: {} - {}", modelFileName, e.getMessage(), e);
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.shipmodel.service.impl;
+
+import com.shipmodel.service.BlenderService;
+import com.shipmodel.service.PreviewService;
+import com.shipmodel.service.TextureIngestService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 纹理目录监听服务：在textures.base.dir下出现完整的日期纹理集（top.jpg + side.jpg）时，
+ * 以低优先级为配置的船型排队执行纹理贴图，使结果在用户请求前就已生成。
+ * 默认使用WatchService监听，网络挂载目录可配置为轮询模式。
+ */
+@Service
+@Lazy(false) // 没有其他Bean依赖它，开启延迟初始化时也需要在启动时创建
+@ConditionalOnProperty(name = "texture.ingest.enabled", havingValue = "true")
+public class TextureIngestServiceImpl implements TextureIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(TextureIngestServiceImpl.class);
+
+    // 日期目录名格式，例如 20250522
+    private static final Pattern DATE_DIR_PATTERN = Pattern.compile("\\d{8}");
+
+    @Value("${textures.base.dir:}")
+    private String texturesBaseDir;
+
+    @Value("${texture.ingest.models:}")
+    private String ingestModels; // 需要预生成的船型列表，逗号分隔
+
+    @Value("${texture.ingest.mode:watch}")
+    private String ingestMode; // watch：WatchService监听；poll：定时轮询（适用于网络挂载目录）
+
+    @Value("${texture.ingest.poll-interval-ms:30000}")
+    private long pollIntervalMs;
+
+    @Value("${texture.ingest.settle-ms:5000}")
+    private long settleMs; // 纹理文件最后修改后需稳定的时间，避免处理仍在拷贝中的文件
+
+    @Value("${texture.ingest.scan-existing:false}")
+    private boolean scanExisting; // 启动时是否为已存在的纹理集排队任务
+
+    private final BlenderService blenderService;
+
+    private final PreviewService previewService;
+
+    // 已排队的纹理集：日期 -> 纹理文件最后修改时间，修改时间变化后会重新排队
+    private final Map<String, Long> queuedSets = new ConcurrentHashMap<>();
+
+    private final AtomicInteger pendingJobs = new AtomicInteger();
+
+    // 每个日期目录最多一个待执行的检查，拷贝大文件时的大量MODIFY事件合并为一次
+    private final Map<Path, ScheduledFuture<?>> pendingChecks = new ConcurrentHashMap<>();
+
+    private final List<String> models = new ArrayList<>();
+
+    private Path textureRoot;
+    private ExecutorService jobExecutor;
+    private ScheduledExecutorService scheduler;
+    private WatchService watchService;
+    private Thread watchThread;
+
+    @Autowired
+    public TextureIngestServiceImpl(BlenderService blenderService, PreviewService previewService) {
+        this.blenderService = blenderService;
+        this.previewService = previewService;
+    }
+
+    @PostConstruct
+    public void start() {
+        for (String model : ingestModels.split(",")) {
+            if (!model.trim().isEmpty()) {
+                models.add(model.trim());
+            }
+        }
+        if (texturesBaseDir == null || texturesBaseDir.isEmpty() || models.isEmpty()) {
+            log.warn("纹理目录监听未启动: textures.base.dir或texture.ingest.models未配置");
+            return;
+        }
+        textureRoot = Paths.get(texturesBaseDir);
+        if (!Files.isDirectory(textureRoot)) {
+            log.warn("纹理目录监听未启动: 目录不存在 {}", textureRoot.toAbsolutePath());
+            return;
+        }
+
+        // 预生成任务单线程执行，Blender进程以低优先级运行，避免与用户请求争抢CPU
+        jobExecutor = Executors.newSingleThreadExecutor(namedThreadFactory("texture-ingest-job"));
+        scheduler = Executors.newSingleThreadScheduledExecutor(namedThreadFactory("texture-ingest-scan"));
+
+        if (!scanExisting) {
+            markExistingSets();
+        }
+
+        boolean watching = "watch".equalsIgnoreCase(ingestMode) && startWatcher();
+        if (watching) {
+            log.info("纹理目录监听已启动(WatchService): 目录={}, 船型={}", textureRoot.toAbsolutePath(), models);
+            if (scanExisting) {
+                scheduler.execute(this::scanNow);
+            }
+        } else {
+            // 轮询模式或WatchService不可用时回退为定时扫描
+            scheduler.scheduleWithFixedDelay(this::scanNow, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+            log.info("纹理目录监听已启动(轮询，间隔{}ms): 目录={}, 船型={}", pollIntervalMs, textureRoot.toAbsolutePath(), models);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("关闭WatchService失败: {}", e.getMessage());
+            }
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (jobExecutor != null) {
+            jobExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 扫描纹理根目录下所有日期目录
+     *
+     * @return 本次新排队的任务数量
+     */
+    @Override
+    public int scanNow() {
+        if (textureRoot == null) {
+            return 0;
+        }
+        int queued = 0;
+        try (DirectoryStream<Path> dateDirs = Files.newDirectoryStream(textureRoot, this::isDateDir)) {
+            for (Path dateDir : dateDirs) {
+                queued += queueIfComplete(dateDir);
+            }
+        } catch (Exception e) {
+            log.error("扫描纹理目录失败: {}", e.getMessage(), e);
+        }
+        return queued;
+    }
+
+    @Override
+    public int getPendingJobCount() {
+        return pendingJobs.get();
+    }
+
+    /**
+     * 启动WatchService监听纹理根目录及其下的日期目录
+     *
+     * @return 是否启动成功
+     */
+    private boolean startWatcher() {
+        try {
+            watchService = textureRoot.getFileSystem().newWatchService();
+            textureRoot.register(watchService, StandardWatchEventKinds.ENTRY_CREATE);
+            try (DirectoryStream<Path> dateDirs = Files.newDirectoryStream(textureRoot, this::isDateDir)) {
+                for (Path dateDir : dateDirs) {
+                    registerDateDir(dateDir);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("WatchService不可用，回退为轮询模式: {}", e.getMessage());
+            return false;
+        }
+
+        watchThread = new Thread(this::watchLoop, "texture-ingest-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        return true;
+    }
+
+    private void registerDateDir(Path dateDir) throws IOException {
+        dateDir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    private void watchLoop() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Path dir = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // 事件丢失时做一次全量扫描
+                    scheduler.execute(this::scanNow);
+                    continue;
+                }
+                Path changed = dir.resolve((Path) event.context());
+                if (dir.equals(textureRoot)) {
+                    if (isDateDir(changed)) {
+                        try {
+                            registerDateDir(changed);
+                        } catch (IOException e) {
+                            log.warn("注册日期目录监听失败: {} - {}", changed, e.getMessage());
+                        }
+                        // 目录可能在注册前就已经写入了文件
+                        scheduleCheck(changed);
+                    }
+                } else {
+                    scheduleCheck(dir);
+                }
+            }
+            key.reset();
+        }
+    }
+
+    /**
+     * 在稳定时间后检查日期目录，等待文件拷贝完成；该目录已有待执行的检查时不重复安排
+     */
+    private void scheduleCheck(Path dateDir) {
+        pendingChecks.compute(dateDir, (dir, existing) -> {
+            if (existing != null && !existing.isDone()) {
+                return existing;
+            }
+            return scheduler.schedule(() -> {
+                // 先移除再检查，检查中发现文件未稳定时可以重新安排
+                pendingChecks.remove(dir);
+                queueIfComplete(dir);
+            }, settleMs, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * 日期目录中纹理集完整且已稳定时，为每个船型排队一个预生成任务
+     *
+     * @param dateDir 日期目录
+     * @return 排队的任务数量
+     */
+    private int queueIfComplete(Path dateDir) {
+        try {
+            Path top = dateDir.resolve("top.jpg");
+            Path side = dateDir.resolve("side.jpg");
+            if (!Files.isRegularFile(top) || !Files.isRegularFile(side)
+                    || Files.size(top) == 0 || Files.size(side) == 0) {
+                return 0;
+            }
+            long lastModified = Math.max(Files.getLastModifiedTime(top).toMillis(),
+                    Files.getLastModifiedTime(side).toMillis());
+            if (System.currentTimeMillis() - lastModified < settleMs) {
+                // 文件仍可能在写入，稍后再检查
+                scheduleCheck(dateDir);
+                return 0;
+            }
+
+            String textureDate = dateDir.getFileName().toString();
+            Long previous = queuedSets.put(textureDate, lastModified);
+            if (previous != null && previous == lastModified) {
+                return 0;
+            }
+
+            log.info("检测到新的纹理集: {}，为{}个船型排队预生成", textureDate, models.size());
+            for (String shipModel : models) {
+                submitJob(shipModel, textureDate);
+            }
+            return models.size();
+        } catch (Exception e) {
+            log.error("检查纹理集失败: {} - {}", dateDir, e.getMessage(), e);
+            return 0;
+        }
+    }
+
+    private void submitJob(String shipModel, String textureDate) {
+        pendingJobs.incrementAndGet();
+        jobExecutor.execute(() -> {
+            try {
+                log.info("开始预生成模型: 船型={}, 纹理日期={}", shipModel, textureDate);
+                String outputFileName = blenderService.executeTextureMappingScript(shipModel, textureDate, true);
+                previewService.generatePreviews(outputFileName);
+                log.info("预生成模型完成: {}", outputFileName);
+            } catch (Exception e) {
+                log.error("预生成模型失败: 船型={}, 纹理日期={} - {}", shipModel, textureDate, e.getMessage());
+            } finally {
+                pendingJobs.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * 记录启动时已存在的纹理集，使其不会被重新排队
+     */
+    private void markExistingSets() {
+        try (DirectoryStream<Path> dateDirs = Files.newDirectoryStream(textureRoot, this::isDateDir)) {
+            for (Path dateDir : dateDirs) {
+                Path top = dateDir.resolve("top.jpg");
+                Path side = dateDir.resolve("side.jpg");
+                if (Files.isRegularFile(top) && Files.isRegularFile(side)) {
+                    queuedSets.put(dateDir.getFileName().toString(), Math.max(
+                            Files.getLastModifiedTime(top).toMillis(), Files.getLastModifiedTime(side).toMillis()));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("读取已有纹理集失败: {}", e.getMessage());
+        }
+    }
+
+    private boolean isDateDir(Path path) {
+        return Files.isDirectory(path) && DATE_DIR_PATTERN.matcher(path.getFileName().toString()).matches();
+    }
+
+    private static ThreadFactory namedThreadFactory(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
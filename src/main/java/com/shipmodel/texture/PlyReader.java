@@ -0,0 +1,190 @@
+package com.shipmodel.texture;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PLY模型读取器，只读取顶点坐标（x、y、z），支持ascii和二进制（大/小端）格式
+ */
+public final class PlyReader {
+
+    private PlyReader() {
+    }
+
+    /**
+     * 读取PLY文件中的顶点坐标
+     *
+     * @param plyPath PLY文件路径
+     * @return 顶点坐标，每个顶点3个分量
+     * @throws IOException 文件读取或格式错误
+     */
+    public static float[] readVertices(Path plyPath) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(plyPath), 1 << 16))) {
+            if (!"ply".equals(readLine(input))) {
+                throw new IOException("不是有效的PLY文件: " + plyPath);
+            }
+
+            String format = null;
+            int vertexCount = -1;
+            boolean inVertexElement = false;
+            List<String> vertexPropertyTypes = new ArrayList<>();
+            List<String> vertexPropertyNames = new ArrayList<>();
+            String line;
+            while (!"end_header".equals(line = readLine(input))) {
+                String[] tokens = line.trim().split("\\s+");
+                if (tokens[0].equals("format")) {
+                    format = tokens[1];
+                } else if (tokens[0].equals("element")) {
+                    if (tokens[1].equals("vertex")) {
+                        vertexCount = Integer.parseInt(tokens[2]);
+                        inVertexElement = true;
+                    } else if (vertexCount < 0 && Integer.parseInt(tokens[2]) > 0) {
+                        // 顶点元素前的其他元素需要跳过，暂不支持
+                        throw new IOException("不支持顶点元素之前存在其他元素的PLY文件: " + plyPath);
+                    } else {
+                        inVertexElement = false;
+                    }
+                } else if (tokens[0].equals("property") && inVertexElement) {
+                    if (tokens[1].equals("list")) {
+                        throw new IOException("不支持顶点元素包含列表属性的PLY文件: " + plyPath);
+                    }
+                    vertexPropertyTypes.add(tokens[1]);
+                    vertexPropertyNames.add(tokens[2]);
+                }
+            }
+
+            int[] coordinateIndexes = {
+                    vertexPropertyNames.indexOf("x"), vertexPropertyNames.indexOf("y"), vertexPropertyNames.indexOf("z")};
+            if (vertexCount < 0 || coordinateIndexes[0] < 0 || coordinateIndexes[1] < 0 || coordinateIndexes[2] < 0) {
+                throw new IOException("PLY文件缺少顶点坐标: " + plyPath);
+            }
+
+            if ("ascii".equals(format)) {
+                return readAscii(input, vertexCount, coordinateIndexes);
+            } else if ("binary_little_endian".equals(format) || "binary_big_endian".equals(format)) {
+                ByteOrder order = format.equals("binary_little_endian") ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+                return readBinary(input, vertexCount, vertexPropertyTypes, coordinateIndexes, order);
+            }
+            throw new IOException("不支持的PLY格式: " + format);
+        }
+    }
+
+    private static float[] readAscii(DataInputStream input, int vertexCount, int[] coordinateIndexes) throws IOException {
+        float[] vertices = new float[vertexCount * 3];
+        for (int i = 0; i < vertexCount; i++) {
+            String[] tokens = readLine(input).trim().split("\\s+");
+            for (int c = 0; c < 3; c++) {
+                vertices[i * 3 + c] = Float.parseFloat(tokens[coordinateIndexes[c]]);
+            }
+        }
+        return vertices;
+    }
+
+    private static float[] readBinary(DataInputStream input, int vertexCount, List<String> propertyTypes,
+                                      int[] coordinateIndexes, ByteOrder order) throws IOException {
+        int[] offsets = new int[propertyTypes.size()];
+        int stride = 0;
+        for (int p = 0; p < propertyTypes.size(); p++) {
+            offsets[p] = stride;
+            stride += typeSize(propertyTypes.get(p));
+        }
+
+        byte[] record = new byte[stride];
+        ByteBuffer buffer = ByteBuffer.wrap(record).order(order);
+        float[] vertices = new float[vertexCount * 3];
+        for (int i = 0; i < vertexCount; i++) {
+            input.readFully(record);
+            for (int c = 0; c < 3; c++) {
+                int property = coordinateIndexes[c];
+                vertices[i * 3 + c] = (float) readNumber(buffer, offsets[property], propertyTypes.get(property));
+            }
+        }
+        return vertices;
+    }
+
+    private static int typeSize(String type) throws IOException {
+        switch (type) {
+            case "char":
+            case "uchar":
+            case "int8":
+            case "uint8":
+                return 1;
+            case "short":
+            case "ushort":
+            case "int16":
+            case "uint16":
+                return 2;
+            case "int":
+            case "uint":
+            case "int32":
+            case "uint32":
+            case "float":
+            case "float32":
+                return 4;
+            case "double":
+            case "float64":
+                return 8;
+            default:
+                throw new IOException("不支持的PLY属性类型: " + type);
+        }
+    }
+
+    private static double readNumber(ByteBuffer buffer, int offset, String type) {
+        switch (type) {
+            case "char":
+            case "int8":
+                return buffer.get(offset);
+            case "uchar":
+            case "uint8":
+                return buffer.get(offset) & 0xFF;
+            case "short":
+            case "int16":
+                return buffer.getShort(offset);
+            case "ushort":
+            case "uint16":
+                return buffer.getShort(offset) & 0xFFFF;
+            case "int":
+            case "int32":
+                return buffer.getInt(offset);
+            case "uint":
+            case "uint32":
+                return buffer.getInt(offset) & 0xFFFFFFFFL;
+            case "float":
+            case "float32":
+                return buffer.getFloat(offset);
+            default:
+                return buffer.getDouble(offset);
+        }
+    }
+
+    /**
+     * 逐字节读取一行（头部为ASCII，不能用Reader以免预读二进制数据）
+     */
+    private static String readLine(InputStream input) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = input.read()) != '\n') {
+            if (b < 0) {
+                if (line.size() == 0) {
+                    throw new EOFException("PLY文件意外结束");
+                }
+                break;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return new String(line.toByteArray(), StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,236 @@
+package com.shipmodel.texture;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * 纹理裁剪器：把纹理裁剪到模型投影范围，并重采样到指定的纹理密度。
+ * 裁剪区域按水平条带逐条解码（解码时先做整数倍降采样），每条解码后立即重采样到输出图，
+ * 堆内存中同时只有一条不超过maxStripPixels像素的条带，大尺寸卫星图不会完整加载；
+ * 条带内的区域平均重采样按输出行在ForkJoin公共池上并行执行。
+ * 条带越小内存越低，但JPEG解码器读取每条带时需要从头扫描，条带过小会增加解码耗时。
+ */
+public class TextureCropper {
+
+    private final double margin; // 投影范围四周预留的比例
+    private final double texelDensity; // 每个模型单位对应的纹理像素数，<=0表示保持原始分辨率
+    private final int maxSize; // 输出纹理的最大边长
+    private final float jpegQuality;
+    private final long maxStripPixels; // 每条解码条带的最大像素数
+
+    public TextureCropper(double margin, double texelDensity, int maxSize, float jpegQuality, long maxStripPixels) {
+        this.margin = margin;
+        this.texelDensity = texelDensity;
+        this.maxSize = maxSize;
+        this.jpegQuality = jpegQuality;
+        this.maxStripPixels = maxStripPixels;
+    }
+
+    /**
+     * 裁剪结果：输出纹理以及它在原纹理中对应的UV范围（Blender约定，v轴向上）
+     */
+    public static class CropResult {
+
+        private final int width;
+        private final int height;
+        private final double[] uvRange; // {u0, v0, u1, v1}
+
+        CropResult(int width, int height, double[] uvRange) {
+            this.width = width;
+            this.height = height;
+            this.uvRange = uvRange;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * 传给Blender脚本的UV裁剪参数，格式为 "u0,v0,u1,v1"
+         */
+        public String toScriptArgument() {
+            return String.format(Locale.ROOT, "%.8f,%.8f,%.8f,%.8f", uvRange[0], uvRange[1], uvRange[2], uvRange[3]);
+        }
+    }
+
+    /**
+     * 裁剪并重采样纹理
+     *
+     * @param source 原始纹理
+     * @param target 输出纹理（JPEG）
+     * @param footprint 模型投影范围
+     * @return 裁剪结果，裁剪后与原图相同（无需处理）时返回null
+     * @throws IOException 图片读写失败
+     */
+    public CropResult crop(Path source, Path target, TextureFootprint footprint) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("无法识别的图片格式: " + source);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int imageWidth = reader.getWidth(0);
+                int imageHeight = reader.getHeight(0);
+
+                // 1. 投影范围加边距后换算为像素区域
+                int[] region = cropRegion(footprint, margin, imageWidth, imageHeight);
+                int cropWidth = region[2] - region[0];
+                int cropHeight = region[3] - region[1];
+
+                // 2. 按纹理密度和最大边长计算输出尺寸，只缩小不放大
+                double scale = 1;
+                if (texelDensity > 0) {
+                    scale = Math.min(scale, Math.max(
+                            footprint.getWorldWidth() * (1 + 2 * margin) * texelDensity / cropWidth,
+                            footprint.getWorldHeight() * (1 + 2 * margin) * texelDensity / cropHeight));
+                }
+                if (maxSize > 0) {
+                    scale = Math.min(scale, (double) maxSize / Math.max(cropWidth, cropHeight));
+                }
+                int outputWidth = Math.max(1, (int) Math.round(cropWidth * scale));
+                int outputHeight = Math.max(1, (int) Math.round(cropHeight * scale));
+                if (cropWidth == imageWidth && cropHeight == imageHeight && outputWidth == imageWidth) {
+                    return null;
+                }
+
+                // 3. 解码时做整数倍降采样（保留至少2倍余量给区域平均），逐条带解码并重采样，然后写出
+                int subsampling = Math.max(1, Math.min(cropWidth / outputWidth, cropHeight / outputHeight) / 2);
+                BufferedImage output = decodeAndResample(reader, region, subsampling, outputWidth, outputHeight);
+                writeJpeg(output, target);
+
+                return new CropResult(outputWidth, outputHeight, toUvRange(region, imageWidth, imageHeight));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 投影范围（UV，v轴向上）加边距后换算为图片像素区域（Y轴向下），并限制在图片范围内
+     *
+     * @return {x0, y0, x1, y1}，x1、y1不包含，区域至少1x1像素
+     */
+    static int[] cropRegion(TextureFootprint footprint, double margin, int imageWidth, int imageHeight) {
+        double padU = (footprint.getMaxU() - footprint.getMinU()) * margin;
+        double padV = (footprint.getMaxV() - footprint.getMinV()) * margin;
+        int x0 = clamp((int) Math.floor((footprint.getMinU() - padU) * imageWidth), 0, imageWidth - 1);
+        int x1 = clamp((int) Math.ceil((footprint.getMaxU() + padU) * imageWidth), x0 + 1, imageWidth);
+        int y0 = clamp((int) Math.floor((1 - footprint.getMaxV() - padV) * imageHeight), 0, imageHeight - 1);
+        int y1 = clamp((int) Math.ceil((1 - footprint.getMinV() + padV) * imageHeight), y0 + 1, imageHeight);
+        return new int[]{x0, y0, x1, y1};
+    }
+
+    /**
+     * 像素区域换算回原图中的UV范围（Blender约定，v轴向上），即传给脚本uv_crop的值
+     *
+     * @return {u0, v0, u1, v1}
+     */
+    static double[] toUvRange(int[] region, int imageWidth, int imageHeight) {
+        return new double[]{
+                (double) region[0] / imageWidth, 1 - (double) region[3] / imageHeight,
+                (double) region[2] / imageWidth, 1 - (double) region[1] / imageHeight};
+    }
+
+    /**
+     * 按水平条带解码裁剪区域，每条带解码后立即区域平均重采样到输出图
+     */
+    private BufferedImage decodeAndResample(ImageReader reader, int[] region, int subsampling,
+                                            int outputWidth, int outputHeight) throws IOException {
+        int cropWidth = region[2] - region[0];
+        int cropHeight = region[3] - region[1];
+        // 降采样后裁剪区域的尺寸，解码后第i行对应原图第 y0 + i * subsampling 行
+        int decodedWidth = (cropWidth + subsampling - 1) / subsampling;
+        int decodedHeight = (cropHeight + subsampling - 1) / subsampling;
+        double scaleX = (double) decodedWidth / outputWidth;
+        double scaleY = (double) decodedHeight / outputHeight;
+        int outputRowsPerStrip = (int) Math.max(1, maxStripPixels / (decodedWidth * Math.max(1, Math.ceil(scaleY))));
+
+        int[] pixels = new int[outputWidth * outputHeight];
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        for (int outY0 = 0; outY0 < outputHeight; outY0 += outputRowsPerStrip) {
+            int outY1 = Math.min(outY0 + outputRowsPerStrip, outputHeight);
+            int stripY0 = Math.min((int) Math.floor(outY0 * scaleY), decodedHeight - 1);
+            int stripY1 = Math.max(stripY0 + 1, Math.min((int) Math.ceil(outY1 * scaleY), decodedHeight));
+            int sourceY0 = stripY0 * subsampling;
+            int sourceY1 = Math.min(stripY1 * subsampling, cropHeight);
+            param.setSourceRegion(new Rectangle(region[0], region[1] + sourceY0, cropWidth, sourceY1 - sourceY0));
+            BufferedImage strip = reader.read(0, param);
+            resampleStrip(strip, stripY0, scaleX, scaleY, pixels, outputWidth, outY0, outY1);
+        }
+
+        BufferedImage output = new BufferedImage(outputWidth, outputHeight, BufferedImage.TYPE_INT_RGB);
+        output.setRGB(0, 0, outputWidth, outputHeight, pixels, 0, outputWidth);
+        return output;
+    }
+
+    /**
+     * 区域平均重采样条带覆盖的输出行 [outY0, outY1)，按输出行并行处理
+     *
+     * @param strip 解码后的条带
+     * @param stripY0 条带第一行在降采样后裁剪区域中的行号
+     */
+    private static void resampleStrip(BufferedImage strip, int stripY0, double scaleX, double scaleY,
+                                      int[] pixels, int outputWidth, int outY0, int outY1) {
+        int stripWidth = strip.getWidth();
+        int stripHeight = strip.getHeight();
+        IntStream.range(outY0, outY1).parallel().forEach(oy -> {
+            int sy0 = clamp((int) Math.floor(oy * scaleY) - stripY0, 0, stripHeight - 1);
+            int sy1 = clamp((int) Math.ceil((oy + 1) * scaleY) - stripY0, sy0 + 1, stripHeight);
+            int[] rows = strip.getRGB(0, sy0, stripWidth, sy1 - sy0, null, 0, stripWidth);
+
+            for (int ox = 0; ox < outputWidth; ox++) {
+                int sx0 = clamp((int) Math.floor(ox * scaleX), 0, stripWidth - 1);
+                int sx1 = clamp((int) Math.ceil((ox + 1) * scaleX), sx0 + 1, stripWidth);
+                long r = 0, g = 0, b = 0;
+                for (int sy = 0; sy < sy1 - sy0; sy++) {
+                    int rowOffset = sy * stripWidth;
+                    for (int sx = sx0; sx < sx1; sx++) {
+                        int rgb = rows[rowOffset + sx];
+                        r += (rgb >> 16) & 0xFF;
+                        g += (rgb >> 8) & 0xFF;
+                        b += rgb & 0xFF;
+                    }
+                }
+                int count = (sy1 - sy0) * (sx1 - sx0);
+                pixels[oy * outputWidth + ox] = (int) (r / count) << 16 | (int) (g / count) << 8 | (int) (b / count);
+            }
+        });
+    }
+
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,94 @@
+package com.shipmodel.texture;
+
+import com.shipmodel.preview.PreviewCamera;
+import com.shipmodel.preview.ScriptCamera;
+
+/**
+ * 模型在某个脚本相机下的投影范围：纹理坐标包围盒，以及模型在相机平面上的尺寸
+ */
+public class TextureFootprint {
+
+    private final double minU;
+    private final double minV;
+    private final double maxU;
+    private final double maxV;
+    private final double worldWidth; // 沿相机X轴的模型尺寸
+    private final double worldHeight; // 沿相机Y轴的模型尺寸
+
+    TextureFootprint(double minU, double minV, double maxU, double maxV,
+                             double worldWidth, double worldHeight) {
+        this.minU = minU;
+        this.minV = minV;
+        this.maxU = maxU;
+        this.maxV = maxV;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+    }
+
+    /**
+     * 按脚本的处理方式（先将模型旋转到相机对应角度，再做透视UV投影）计算投影范围。
+     * 使用全部顶点而不是脚本中筛选出的面，得到的是脚本实际使用范围的保守上界。
+     *
+     * @param vertices 模型顶点坐标
+     * @param camera 脚本相机
+     * @return 投影范围，没有顶点位于相机前方时返回null
+     */
+    public static TextureFootprint compute(float[] vertices, ScriptCamera camera) {
+        PreviewCamera projection = camera.toPreviewCamera();
+        double[] modelRotation = camera.getModelRotation();
+        double[] right = projection.getRight();
+        double[] up = projection.getUp();
+
+        double minU = Double.MAX_VALUE, minV = Double.MAX_VALUE;
+        double maxU = -Double.MAX_VALUE, maxV = -Double.MAX_VALUE;
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+        boolean found = false;
+        for (int i = 0; i < vertices.length; i += 3) {
+            double[] world = PreviewCamera.rotate(modelRotation, vertices[i], vertices[i + 1], vertices[i + 2]);
+            double[] uv = projection.projectToUv(world[0], world[1], world[2]);
+            if (uv == null) {
+                continue;
+            }
+            found = true;
+            minU = Math.min(minU, uv[0]);
+            maxU = Math.max(maxU, uv[0]);
+            minV = Math.min(minV, uv[1]);
+            maxV = Math.max(maxV, uv[1]);
+            double x = right[0] * world[0] + right[1] * world[1] + right[2] * world[2];
+            double y = up[0] * world[0] + up[1] * world[1] + up[2] * world[2];
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+        }
+        if (!found) {
+            return null;
+        }
+        return new TextureFootprint(minU, minV, maxU, maxV, maxX - minX, maxY - minY);
+    }
+
+    public double getMinU() {
+        return minU;
+    }
+
+    public double getMinV() {
+        return minV;
+    }
+
+    public double getMaxU() {
+        return maxU;
+    }
+
+    public double getMaxV() {
+        return maxV;
+    }
+
+    public double getWorldWidth() {
+        return worldWidth;
+    }
+
+    public double getWorldHeight() {
+        return worldHeight;
+    }
+}
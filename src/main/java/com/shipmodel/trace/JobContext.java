@@ -0,0 +1,59 @@
+package com.shipmodel.trace;
+
+import org.slf4j.MDC;
+
+/**
+ * 当前线程正在执行的任务。绑定后日志MDC中带有jobId，服务层可直接记录阶段耗时而无需逐层传参；
+ * 没有绑定任务时（例如纹理目录监听预生成）各方法均为空操作。
+ */
+public final class JobContext {
+
+    /** 日志MDC中关联ID的键名，对应 logging.pattern.level 中的 %X{jobId} */
+    public static final String MDC_KEY = "jobId";
+
+    private static final ThreadLocal<JobTrace> CURRENT = new ThreadLocal<>();
+
+    private JobContext() {
+    }
+
+    /**
+     * 将任务绑定到当前线程
+     */
+    public static void attach(JobTrace trace) {
+        CURRENT.set(trace);
+        MDC.put(MDC_KEY, trace.getJobId());
+    }
+
+    /**
+     * 解除当前线程绑定的任务
+     */
+    public static void detach() {
+        CURRENT.remove();
+        MDC.remove(MDC_KEY);
+    }
+
+    /**
+     * @return 当前线程绑定的任务，没有时返回null
+     */
+    public static JobTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return 当前任务的关联ID，没有绑定任务时返回null
+     */
+    public static String jobId() {
+        JobTrace trace = CURRENT.get();
+        return trace != null ? trace.getJobId() : null;
+    }
+
+    /**
+     * 为当前任务记录一个Java端阶段
+     */
+    public static void recordSpan(String name, long start, long end) {
+        JobTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.addSpan(name, "java", start, end, null);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.shipmodel.trace;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * 任务时间线中的一个阶段
+ */
+@Schema(description = "任务阶段耗时")
+public class JobSpan {
+
+    @Schema(description = "阶段名称，例如 queue_wait、process_spawn、import、projection:Camera_Top、export")
+    private final String name;
+
+    @Schema(description = "记录方：java 或 blender")
+    private final String source;
+
+    @Schema(description = "相对任务开始的偏移（毫秒）")
+    private final long startOffsetMs;
+
+    @Schema(description = "耗时（毫秒）")
+    private final long durationMs;
+
+    @Schema(description = "附加信息，例如下载的文件")
+    private final String detail;
+
+    public JobSpan(String name, String source, long startOffsetMs, long durationMs, String detail) {
+        this.name = name;
+        this.source = source;
+        this.startOffsetMs = startOffsetMs;
+        this.durationMs = durationMs;
+        this.detail = detail;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getStartOffsetMs() {
+        return startOffsetMs;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+}
@@ -0,0 +1,119 @@
+package com.shipmodel.trace;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 一次贴图任务的时间线：关联ID、任务状态以及Java端和Blender脚本上报的各阶段耗时
+ */
+@Schema(description = "任务时间线")
+public class JobTrace {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String SUCCESS = "SUCCESS";
+    public static final String FAILED = "FAILED";
+
+    @Schema(description = "任务关联ID，与日志中的[jobId]一致", example = "3f9a1c2b7d4e")
+    private final String jobId;
+
+    @Schema(description = "任务类型", example = "texture-mapping")
+    private final String jobType;
+
+    @Schema(description = "任务开始时间（毫秒时间戳）", example = "1747917600000")
+    private final long startedAt;
+
+    private final List<JobSpan> spans = new CopyOnWriteArrayList<>();
+
+    private volatile long finishedAt;
+    private volatile String status = RUNNING;
+    private volatile String error;
+
+    public JobTrace(String jobId, String jobType, long startedAt) {
+        this.jobId = jobId;
+        this.jobType = jobType;
+        this.startedAt = startedAt;
+    }
+
+    /**
+     * 记录一个阶段
+     *
+     * @param name 阶段名称
+     * @param source 记录方（java 或 blender）
+     * @param start 开始时间（毫秒时间戳）
+     * @param end 结束时间（毫秒时间戳）
+     * @param detail 附加信息，可为null
+     */
+    public void addSpan(String name, String source, long start, long end, String detail) {
+        spans.add(new JobSpan(name, source, start - startedAt, Math.max(0, end - start), detail));
+    }
+
+    /**
+     * 标记任务结束
+     *
+     * @param failure 失败原因，成功时为null
+     */
+    public void finish(Throwable failure) {
+        finishedAt = System.currentTimeMillis();
+        if (failure != null) {
+            error = failure.getMessage();
+            status = FAILED;
+        } else {
+            status = SUCCESS;
+        }
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getJobType() {
+        return jobType;
+    }
+
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    @Schema(description = "任务结束时间（毫秒时间戳），运行中为0")
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    @Schema(description = "任务状态：RUNNING、SUCCESS、FAILED")
+    public String getStatus() {
+        return status;
+    }
+
+    @Schema(description = "失败原因")
+    public String getError() {
+        return error;
+    }
+
+    @Schema(description = "任务总耗时（毫秒），运行中为已运行时间")
+    public long getDurationMs() {
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        return end - startedAt;
+    }
+
+    @Schema(description = "耗时最长的阶段名称")
+    public String getSlowestSpan() {
+        JobSpan slowest = null;
+        for (JobSpan span : spans) {
+            if (slowest == null || span.getDurationMs() > slowest.getDurationMs()) {
+                slowest = span;
+            }
+        }
+        return slowest != null ? slowest.getName() : null;
+    }
+
+    @Schema(description = "各阶段耗时，按开始时间排序")
+    public List<JobSpan> getSpans() {
+        List<JobSpan> sorted = new ArrayList<>(spans);
+        sorted.sort(Comparator.comparingLong(JobSpan::getStartOffsetMs));
+        return sorted;
+    }
+}
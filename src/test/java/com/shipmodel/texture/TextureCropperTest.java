@@ -0,0 +1,121 @@
+package com.shipmodel.texture;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 纹理裁剪区域与UV范围换算测试（UV范围是传给Blender脚本uv_crop参数的唯一约定）
+ */
+class TextureCropperTest {
+
+    @Test
+    void cropRegionFlipsVAxis() {
+        // UV的v轴向上，图片Y轴向下：v∈[0.25, 0.5] 对应图片下半部分的第100~150行
+        TextureFootprint footprint = new TextureFootprint(0.25, 0.25, 0.75, 0.5, 1, 1);
+
+        int[] region = TextureCropper.cropRegion(footprint, 0, 200, 200);
+
+        assertArrayEquals(new int[]{50, 100, 150, 150}, region);
+    }
+
+    @Test
+    void cropRegionAppliesMargin() {
+        TextureFootprint footprint = new TextureFootprint(0.25, 0.25, 0.75, 0.75, 1, 1);
+
+        int[] region = TextureCropper.cropRegion(footprint, 0.125, 256, 256);
+
+        // 每边扩展范围的1/8：0.5 * 0.125 = 0.0625 → 16像素
+        assertArrayEquals(new int[]{48, 48, 208, 208}, region);
+    }
+
+    @Test
+    void cropRegionClampsToImage() {
+        TextureFootprint footprint = new TextureFootprint(-0.5, -0.25, 1.5, 1.25, 1, 1);
+
+        int[] region = TextureCropper.cropRegion(footprint, 0, 100, 80);
+
+        assertArrayEquals(new int[]{0, 0, 100, 80}, region);
+    }
+
+    @Test
+    void cropRegionIsAtLeastOnePixel() {
+        TextureFootprint footprint = new TextureFootprint(2, 2, 3, 3, 1, 1);
+
+        int[] region = TextureCropper.cropRegion(footprint, 0, 100, 100);
+
+        assertArrayEquals(new int[]{99, 0, 100, 1}, region);
+    }
+
+    @Test
+    void uvRangeMapsBackToFootprint() {
+        TextureFootprint footprint = new TextureFootprint(0.25, 0.25, 0.75, 0.5, 1, 1);
+        int[] region = TextureCropper.cropRegion(footprint, 0, 200, 200);
+
+        double[] uvRange = TextureCropper.toUvRange(region, 200, 200);
+
+        assertArrayEquals(new double[]{0.25, 0.25, 0.75, 0.5}, uvRange, 1e-12);
+    }
+
+    @Test
+    void uvRangeContainsFootprintAfterRounding() {
+        TextureFootprint footprint = new TextureFootprint(0.1234, 0.3456, 0.6789, 0.9012, 1, 1);
+        int[] region = TextureCropper.cropRegion(footprint, 0, 333, 517);
+
+        double[] uvRange = TextureCropper.toUvRange(region, 333, 517);
+
+        assertTrue(uvRange[0] <= 0.1234 && uvRange[1] <= 0.3456);
+        assertTrue(uvRange[2] >= 0.6789 && uvRange[3] >= 0.9012);
+    }
+
+    @Test
+    void cropDecodesInStripsAndKeepsOrientation(@TempDir Path dir) throws Exception {
+        // 上半部分红色、下半部分蓝色的 400x400 图片
+        BufferedImage image = new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 400; y++) {
+            for (int x = 0; x < 400; x++) {
+                image.setRGB(x, y, y < 200 ? 0xFF0000 : 0x0000FF);
+            }
+        }
+        Path source = dir.resolve("source.png");
+        ImageIO.write(image, "png", source.toFile());
+        Path target = dir.resolve("target.jpg");
+
+        // 裁剪整幅图并缩小到100x100，条带上限很小以强制多次分条解码
+        TextureFootprint footprint = new TextureFootprint(0, 0, 1, 1, 1, 1);
+        TextureCropper cropper = new TextureCropper(0, 0, 100, 1.0f, 1000);
+        TextureCropper.CropResult result = cropper.crop(source, target, footprint);
+
+        assertNotNull(result);
+        assertEquals(100, result.getWidth());
+        assertEquals(100, result.getHeight());
+        assertEquals("0.00000000,0.00000000,1.00000000,1.00000000", result.toScriptArgument());
+        BufferedImage output = ImageIO.read(target.toFile());
+        assertTrue(isMostly(output.getRGB(50, 10), 16), "顶部应为红色");
+        assertTrue(isMostly(output.getRGB(50, 90), 0), "底部应为蓝色");
+    }
+
+    @Test
+    void cropReturnsNullWhenNothingToDo(@TempDir Path dir) throws Exception {
+        Path source = dir.resolve("source.png");
+        ImageIO.write(new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB), "png", source.toFile());
+        TextureFootprint footprint = new TextureFootprint(0, 0, 1, 1, 1, 1);
+
+        assertNull(new TextureCropper(0, 0, 0, 0.9f, 1000).crop(source, dir.resolve("target.jpg"), footprint));
+    }
+
+    private static boolean isMostly(int rgb, int channelShift) {
+        int value = (rgb >> channelShift) & 0xFF;
+        int others = ((rgb >> 16) & 0xFF) + ((rgb >> 8) & 0xFF) + (rgb & 0xFF) - value;
+        return value > 200 && others < 100;
+    }
+}